@@ -26,8 +26,10 @@ public abstract class LoggedInActivityBase extends SimpleActivityBase {
     protected void onlineModeChanged(boolean isOnline){
         if (!isOnline) {
             cancelInterviewsAlarm();
+            client.stopKeepAlive();
         } else {
             startInterviewsAlarm();
+            client.startKeepAlive();
         }
         super.onlineModeChanged(isOnline);
     }
@@ -56,6 +58,22 @@ public abstract class LoggedInActivityBase extends SimpleActivityBase {
         }
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+
+        // Keep the session alive while the app is open so we do not relogin
+        if (isOnline()) {
+            client.startKeepAlive();
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        client.stopKeepAlive();
+        super.onPause();
+    }
+
     protected void cancelInterviewsAlarm() {
         interviewsAlarm.cancel();
     }
@@ -67,6 +85,7 @@ public abstract class LoggedInActivityBase extends SimpleActivityBase {
     }
 
     protected void logout() {
+        client.stopKeepAlive();
         client = new JbmnplsHttpClient();
 
         // Going to login, do not let it auto login
@@ -81,9 +100,7 @@ public abstract class LoggedInActivityBase extends SimpleActivityBase {
             @Override
             public Void doPutTask() {
                 UserDataSource source = new UserDataSource(that);
-                source.open();
                 source.clearLastUser();
-                source.close();
                 return null;
             }
 
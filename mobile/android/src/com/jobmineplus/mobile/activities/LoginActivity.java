@@ -42,7 +42,6 @@ public class LoginActivity extends SimpleActivityBase implements OnClickListener
         super.onCreate(savedInstanceState);
         setContentView(R.layout.login);
         userDataSource = new UserDataSource(this);
-        userDataSource.open();
         getSupportActionBar().setDisplayHomeAsUpEnabled(false);
         getSupportActionBar().setHomeButtonEnabled(false);
         getSupportActionBar().setTitle("Please log in");
@@ -64,18 +63,6 @@ public class LoginActivity extends SimpleActivityBase implements OnClickListener
         }
     }
 
-    @Override
-    protected void onResume() {
-        userDataSource.open();
-        super.onResume();
-    }
-
-    @Override
-    protected void onPause() {
-        userDataSource.close();
-        super.onPause();
-    }
-
     @Override
     protected void onDestroy() {
         userDataSource.close();
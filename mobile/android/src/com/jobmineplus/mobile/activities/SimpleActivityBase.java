@@ -93,7 +93,8 @@ public abstract class SimpleActivityBase extends SherlockFragmentActivity {
 
     // Not truly online unless network is connecting and working
     protected boolean isReallyOnline() {
-        return isOnlineMode && isJobmineOnline() && isNetworkConnected();
+        return isOnlineMode && isJobmineOnline() && isNetworkConnected()
+                && JbmnplsHttpClient.isJobmineAvailable();
     }
 
     // Override this function to detect online status change, call super as well
@@ -1,5 +1,6 @@
 package com.jobmineplus.mobile.activities.jbmnpls;
 
+import java.io.IOException;
 import java.util.Date;
 
 import android.os.Bundle;
@@ -8,6 +9,7 @@ import android.widget.AdapterView;
 import android.widget.TextView;
 
 import com.jobmineplus.mobile.R;
+import com.jobmineplus.mobile.exceptions.JbmnplsLoggedOutException;
 import com.jobmineplus.mobile.widgets.JbmnplsAdapterBase.Formatter;
 import com.jobmineplus.mobile.widgets.JbmnplsAdapterBase.HIGHLIGHTING;
 import com.jobmineplus.mobile.widgets.JbmnplsHttpClient;
@@ -17,8 +19,9 @@ import com.jobmineplus.mobile.widgets.Job.STATUS;
 import com.jobmineplus.mobile.widgets.TutorialHelper;
 import com.jobmineplus.mobile.widgets.table.TableParser;
 import com.jobmineplus.mobile.widgets.table.TableParserOutline;
+import com.jobmineplus.mobile.widgets.table.TableRow;
 
-public class Applications extends JbmnplsPageListActivityBase implements TableParser.OnTableParseListener{
+public class Applications extends JbmnplsPageListActivityBase implements TableParser.OnTableRowListener{
 
     //======================
     //  Declaration Objects
@@ -63,6 +66,11 @@ public class Applications extends JbmnplsPageListActivityBase implements TablePa
             HEADER.JOB_ID, HEADER.JOB_TITLE, HEADER.EMPLOYER, HEADER.UNIT, HEADER.TERM,
             HEADER.JOB_STATUS, HEADER.APP_STATUS, HEADER.VIEW_DETAILS, HEADER.LAST_DAY_TO_APPLY, HEADER.NUM_APPS);
 
+    // Both tables of the page, the active table comes first in the html
+    public static final TableParserOutline[] PAGE_OUTLINES = {
+        ACTIVE_OUTLINES[0], ACTIVE_OUTLINES[1], ACTIVE_OUTLINES[2], ALL_OUTLINE
+    };
+
     protected static final int[] WIDGET_RESOURCE_LIST = {
             R.id.job_title, R.id.job_employer, R.id.location,
             R.id.job_status_first_line, R.id.job_status_second_line,
@@ -71,26 +79,27 @@ public class Applications extends JbmnplsPageListActivityBase implements TablePa
     //============================
     //  Static Public Methods
     //============================
-    public static Job parseRowTableOutline(TableParserOutline outline, Object... jobData) {
-        int id = (Integer) jobData[0];
+    public static Job parseRowTableOutline(TableRow row) {
+        TableParserOutline outline = row.getOutline();
+        int id = row.getInt(0);
 
         if (outline == ACTIVE_OUTLINES[0] || outline == ALL_OUTLINE) {
-            Job.STATUS status = (Job.STATUS)jobData[6];
-            return new Job(          id,    (String)    jobData[1],
-                    (String)    jobData[2], (String)    jobData[4],
-                    (Job.STATE) jobData[5],                 status,
-                    (Date)      jobData[8], (Integer)   jobData[9]);
+            Job.STATUS status = row.getEnum(6);
+            return new Job(          id,    row.getString(1),
+                    row.getString(2),       row.getString(4),
+                    row.<Job.STATE>getEnum(5),              status,
+                    new Date(row.getLong(8)), row.getInt(9));
         } else if (outline == ACTIVE_OUTLINES[1]) {
-            return new Job(          id,    (String)    jobData[1],
-                    (String)    jobData[2], (String)    jobData[4],
-                    (Job.STATE) jobData[5],     STATUS.getDefault(),
-                    (Date)      jobData[7], (Integer)   jobData[8]);
+            return new Job(          id,    row.getString(1),
+                    row.getString(2),       row.getString(4),
+                    row.<Job.STATE>getEnum(5),  STATUS.getDefault(),
+                    new Date(row.getLong(7)), row.getInt(8));
         } else {    // ACTIVE_OUTLINES[2]
-            Job.STATUS status = (Job.STATUS)jobData[6];
-            return new Job(          id,    (String)    jobData[1],
-                    (String)    jobData[2], (String)    jobData[4],
-                    (Job.STATE) jobData[5],                 status,
-                    (Date)      jobData[9], (Integer)   jobData[8]);
+            Job.STATUS status = row.getEnum(6);
+            return new Job(          id,    row.getString(1),
+                    row.getString(2),       row.getString(4),
+                    row.<Job.STATE>getEnum(5),              status,
+                    new Date(row.getLong(9)), row.getInt(8));
         }
     }
 
@@ -105,7 +114,7 @@ public class Applications extends JbmnplsPageListActivityBase implements TablePa
                 R.layout.tutorial_sorting, R.string.pref_seen_sorting_tutorial);
 
         super.onCreate(savedInstanceState);
-        parser.setOnTableRowParse(this);
+        parser.setOnTableRowListener(this);
         createTab(LISTS.ACTIVE_JOBS);
         createTab(LISTS.REJECTED_JOBS);
         createTab(LISTS.ALL_JOBS);
@@ -134,16 +143,22 @@ public class Applications extends JbmnplsPageListActivityBase implements TablePa
         }
     }
 
+    @Override
+    protected String onRequestData(String[] args)
+            throws JbmnplsLoggedOutException, IOException {
+        return client.getJobmineHtmlIfModified(args[0]);
+    }
+
     @Override
     protected void parseWebpage(String html) {
         clearAllLists();
-        parser.execute(ACTIVE_OUTLINES, html);
-        parser.execute(ALL_OUTLINE, html);
+        parser.executeAll(html, PAGE_OUTLINES);
     }
 
     @Override
-    public void onRowParse(TableParserOutline outline, Object... jobData) {
-        Job job = parseRowTableOutline(outline, jobData);
+    public void onRowParse(TableRow row) {
+        TableParserOutline outline = row.getOutline();
+        Job job = parseRowTableOutline(row);
         Job.STATUS status = job.getStatus();
 
         if (outline.equals(ALL_OUTLINE)) {
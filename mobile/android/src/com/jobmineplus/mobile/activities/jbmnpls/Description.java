@@ -99,12 +99,13 @@ public class Description extends JbmnplsPageActivityBase implements OnTouchListe
 
     @Override
     protected String onRequestData(String[] args) throws IOException {
-        String descriptionData = job.grabDescriptionData(client);
-        if (descriptionData != null) {
-            jobDataSource.addJob(job);      // updates with the description data
+        if (!job.grabDescriptionData(client)) {
+            setActivityResult(true);
+            return null;
         }
+        jobDataSource.addJob(job);      // updates with the description data
         setActivityResult(true);
-        return descriptionData;
+        return "";      // Already parsed while it was read
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.jobmineplus.mobile.activities.jbmnpls;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Collections;
@@ -13,6 +14,8 @@ import android.widget.AdapterView;
 import android.widget.TextView;
 
 import com.jobmineplus.mobile.R;
+import com.jobmineplus.mobile.database.jobs.JobDataSource;
+import com.jobmineplus.mobile.exceptions.JbmnplsLoggedOutException;
 import com.jobmineplus.mobile.exceptions.JbmnplsParsingException;
 import com.jobmineplus.mobile.widgets.JbmnplsAdapterBase.Formatter;
 import com.jobmineplus.mobile.widgets.JbmnplsAdapterBase.HIGHLIGHTING;
@@ -22,8 +25,9 @@ import com.jobmineplus.mobile.widgets.Job.HEADER;
 import com.jobmineplus.mobile.widgets.TutorialHelper;
 import com.jobmineplus.mobile.widgets.table.TableParser;
 import com.jobmineplus.mobile.widgets.table.TableParserOutline;
+import com.jobmineplus.mobile.widgets.table.TableRow;
 
-public class Interviews extends JbmnplsPageListActivityBase implements TableParser.OnTableParseListener {
+public class Interviews extends JbmnplsPageListActivityBase implements TableParser.OnTableRowListener {
 
     //======================
     //  Declaration Objects
@@ -143,29 +147,30 @@ public class Interviews extends JbmnplsPageListActivityBase implements TablePars
     //============================
     //  Static Public Methods
     //============================
-    public static Job parseRowTableOutline(TableParserOutline outline, Object... jobData) {
+    public static Job parseRowTableOutline(TableRow row) {
+        TableParserOutline outline = row.getOutline();
         Job job = null;
-        int id = (Integer) jobData[1];
-        String employer = (String) jobData[2];
-        String title = (String) jobData[3];
+        int id = row.getInt(1);
+        String employer = row.getString(2);
+        String title = row.getString(3);
 
         if (outline.equals(SPECIAL_OUTLINE)) {
-            job = new Job(id, employer, title, (String) jobData[4]);
+            job = new Job(id, employer, title, row.getString(4));
         } else if (outline.equals(CANCELLED_OUTLINE)) {
             job = new Job(id, employer, title);
         } else {
-            Date interviewDay = (Date) jobData[4];
+            Date interviewDay = new Date(row.getLong(4));
             if (outline.equals(INTERVIEWS_OUTLINE)) {
                 job = new Job(id, employer, title,
-                        getDateFromDateWithTimeString(interviewDay, (String) jobData[7], 0),
-                        getDateFromDateWithTimeString(interviewDay, (String) jobData[7], (Integer) jobData[8]),
-                        (Job.INTERVIEW_TYPE) jobData[5], (String) jobData[9], (String) jobData[10],
-                        (String) jobData[11]);
+                        getDateFromDateWithTimeString(interviewDay, row.getString(7), 0),
+                        getDateFromDateWithTimeString(interviewDay, row.getString(7), row.getInt(8)),
+                        row.<Job.INTERVIEW_TYPE>getEnum(5), row.getString(9), row.getString(10),
+                        row.getString(11));
             } else {    //GROUPS_OUTLINE
                 job = new Job(id, employer, title,
-                        getDateFromDateWithTimeString(interviewDay, (String) jobData[5], 0),
-                        getDateFromDateWithTimeString(interviewDay, (String) jobData[6], 0),
-                        (String) jobData[7], (String) jobData[8]);
+                        getDateFromDateWithTimeString(interviewDay, row.getString(5), 0),
+                        getDateFromDateWithTimeString(interviewDay, row.getString(6), 0),
+                        row.getString(7), row.getString(8));
             }
         }
         return job;
@@ -186,7 +191,7 @@ public class Interviews extends JbmnplsPageListActivityBase implements TablePars
                 R.layout.tutorial_sorting, R.string.pref_seen_sorting_tutorial);
 
         super.onCreate(savedInstanceState);
-        parser.setOnTableRowParse(this);
+        parser.setOnTableRowListener(this);
         createTab(TABS.COMING_UP);
         createTab(TABS.FINISHED);
     }
@@ -212,8 +217,13 @@ public class Interviews extends JbmnplsPageListActivityBase implements TablePars
     }
 
     @Override
-    public void onRowParse(TableParserOutline outline, Object... jobData) {
-        Job job = parseRowTableOutline(outline, jobData);
+    protected String[] getListColumns() {
+        return JobDataSource.INTERVIEW_SUMMARY_COLUMNS;
+    }
+
+    @Override
+    public void onRowParse(TableRow row) {
+        Job job = parseRowTableOutline(row);
         if (job.pastNow()) {
             addJobToListByTabId(TABS.FINISHED, job);
         } else {
@@ -228,13 +238,16 @@ public class Interviews extends JbmnplsPageListActivityBase implements TablePars
         goToDescription(jobId);
     }
 
+    @Override
+    protected String onRequestData(String[] args)
+            throws JbmnplsLoggedOutException, IOException {
+        return client.getJobmineHtmlIfModified(args[0]);
+    }
+
     @Override
     protected void parseWebpage(String html) {
         clearAllLists();
-        parser.execute(INTERVIEWS_OUTLINE, html);
-        parser.execute(GROUPS_OUTLINE, html);
-        parser.execute(SPECIAL_OUTLINE, html);
-        parser.execute(CANCELLED_OUTLINE, html);
+        parser.executeAll(html, INTERVIEWS_OUTLINE, GROUPS_OUTLINE, SPECIAL_OUTLINE, CANCELLED_OUTLINE);
 
         // Sort results by date
         isdComparer.shouldDescend(false);
@@ -15,6 +15,7 @@ import android.app.Activity;
 import android.app.AlertDialog.Builder;
 import android.content.DialogInterface;
 import android.content.Intent;
+import android.os.Build;
 import android.os.Bundle;
 import android.util.Pair;
 
@@ -32,6 +33,7 @@ import com.jobmineplus.mobile.exceptions.JbmnplsParsingException;
 import com.jobmineplus.mobile.widgets.DatabaseTask;
 import com.jobmineplus.mobile.widgets.DatabaseTask.Action;
 import com.jobmineplus.mobile.widgets.DatabaseTask.IDatabaseTask;
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient;
 import com.jobmineplus.mobile.widgets.Job;
 import com.jobmineplus.mobile.widgets.ProgressDialogAsyncTaskBase;
 import com.jobmineplus.mobile.widgets.StopWatch;
@@ -83,6 +85,15 @@ public abstract class JbmnplsActivityBase extends LoggedInActivityBase implement
 
     protected abstract long doOffine();
 
+    /**
+     * The columns of the jobs to read from the database when loading the
+     * list offline, the rest are read when a job is opened
+     * @return the columns, see JobDataSource.SUMMARY_COLUMNS
+     */
+    protected String[] getListColumns() {
+        return JobDataSource.SUMMARY_COLUMNS;
+    }
+
 
     // ====================
     // Override Methods
@@ -94,8 +105,6 @@ public abstract class JbmnplsActivityBase extends LoggedInActivityBase implement
         allJobs = new ArrayList<Job>();
         jobDataSource = new JobDataSource(this);
         pageDataSource = new PageDataSource(this);
-        jobDataSource.open();
-        pageDataSource.open();
         confirm = new Builder(this);
         confirm.setPositiveButton("Yes", this).setNegativeButton("No", this)
             .setMessage(getString(R.string.go_offline_message));
@@ -163,12 +172,10 @@ public abstract class JbmnplsActivityBase extends LoggedInActivityBase implement
         String password = client.getPassword();
         if (username == null || password == null) {
             UserDataSource userDataSource = new UserDataSource(this);
-            userDataSource.open();
             Pair<String, String> credentials = userDataSource.getLastUser();
             if (credentials != null) {
                 client.setLoginCredentials(credentials.first, credentials.second);
             }
-            userDataSource.close();
             return credentials;
         } else {
             return new Pair<String, String>(username, password);
@@ -329,7 +336,12 @@ public abstract class JbmnplsActivityBase extends LoggedInActivityBase implement
                 confirm.show();
             } else {
                 task = new GetHtmlTask(this, getString(R.string.login_message));
-                task.execute(dataUrl);
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+                    // Run in parallel with other pages instead of the serial executor
+                    task.executeOnExecutor(JbmnplsHttpClient.getRequestExecutor(), dataUrl);
+                } else {
+                    task.execute(dataUrl);
+                }
             }
         } else {
             doExecuteGetTask();
@@ -351,6 +363,16 @@ public abstract class JbmnplsActivityBase extends LoggedInActivityBase implement
         return client.getJobmineHtml(url);
     }
 
+    /**
+     * When parsing fails, the page's last response is forgotten so that the
+     * next request does not think it is unchanged. Override this if
+     * onRequestData does not use the url passed in.
+     * @param args
+     */
+    protected void forgetResponse(String[] args) {
+        client.forgetResponse(args[0]);
+    }
+
     private class GetHtmlTask extends
             ProgressDialogAsyncTaskBase<String, String, Integer> {
 
@@ -363,6 +385,7 @@ public abstract class JbmnplsActivityBase extends LoggedInActivityBase implement
         static final int INFINITE_LOOP_ERROR = 6;
 
         private final StopWatch sw = new StopWatch();
+        private boolean notModified = false;
         public GetHtmlTask(Activity activity, String dialogueMessage) {
             super(activity, dialogueMessage, isOnline());
         }
@@ -392,16 +415,41 @@ public abstract class JbmnplsActivityBase extends LoggedInActivityBase implement
                     backBtnDisabled = false;
                     return NETWORK_ERROR;
                 }
+                if (html == JbmnplsHttpClient.NOT_MODIFIED) {
+                    // Same page as last time, no need to parse and save it again
+                    if (!allJobs.isEmpty() || doOffine() != 0) {
+                        notModified = true;
+                        if (pageName != null) {
+                            pageDataSource.touchPage(client.getUsername(), pageName, timestamp);
+                        }
+                        return NO_PROBLEM;
+                    }
+
+                    // Nothing was saved from last time, so get the page again
+                    activity.forgetResponse(params);
+                    html = activity.onRequestData(params);
+                    if (html == null) {
+                        backBtnDisabled = false;
+                        return NETWORK_ERROR;
+                    }
+                }
+                StopWatch parseWatch = new StopWatch(true);
                 activity.parseWebpage(html);
+                if (html.length() > 0) {    // Streamed pages timed their own parsing
+                    client.recordParseTime(params[0], parseWatch.elapsed());
+                }
                 return NO_PROBLEM;
             } catch (InfiniteLoopException e) {
                 e.printStackTrace();
+                activity.forgetResponse(params);
                 return INFINITE_LOOP_ERROR;
             } catch (HiddenColumnsException e) {
                 e.printStackTrace();
+                activity.forgetResponse(params);
                 return HIDDEN_COLUMNS_ERROR;
             } catch (JbmnplsParsingException e) {
                 e.printStackTrace();
+                activity.forgetResponse(params);
                 return PARSING_ERROR;
             } catch (JbmnplsLoggedOutException e) {
                 e.printStackTrace();
@@ -428,7 +476,7 @@ public abstract class JbmnplsActivityBase extends LoggedInActivityBase implement
             String renderMsg = sw.elapsed() + " ms to render";
             log(renderMsg);
             if (reasonForFailure == NO_PROBLEM) {
-                onRequestComplete(true);
+                onRequestComplete(!notModified);
             } else {
                 switch (reasonForFailure) {
                 case INFINITE_LOOP_ERROR:
@@ -13,7 +13,6 @@ import com.actionbarsherlock.view.Menu;
 import com.actionbarsherlock.view.MenuItem;
 import com.actionbarsherlock.view.SubMenu;
 import com.jobmineplus.mobile.R;
-import com.jobmineplus.mobile.database.pages.PageResult;
 import com.jobmineplus.mobile.exceptions.JbmnplsException;
 import com.jobmineplus.mobile.widgets.JbmnplsAdapterBase;
 import com.jobmineplus.mobile.widgets.JbmnplsAdapterBase.HIGHLIGHTING;
@@ -74,20 +73,11 @@ public abstract class JbmnplsListActivityBase extends JbmnplsActivityBase implem
 
     @Override
     protected long doOffine() {
-        PageResult result = pageDataSource.getPageData(client.getUsername(), getPageName());
-        if (result != null) {
-            ArrayList<Integer> ids = result.ids;
-            allJobs.clear();
-
-            if (ids != null) {
-                ArrayList<Job> jobs = jobDataSource.getJobsByIdList(ids);
-                for (Job job : jobs) {
-                    allJobs.add(job);
-                }
-            }
-            return result.timestamp;
-        }
-        return 0;
+        String username = client.getUsername();
+        long timestamp = pageDataSource.getPageTimestamp(username, getPageName());
+        allJobs.clear();
+        allJobs.addAll(jobDataSource.getPageJobs(username, getPageName(), getListColumns()));
+        return timestamp;
     }
 
     @Override
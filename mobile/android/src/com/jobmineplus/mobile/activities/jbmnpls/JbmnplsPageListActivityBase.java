@@ -19,7 +19,6 @@ import com.actionbarsherlock.view.Menu;
 import com.actionbarsherlock.view.MenuItem;
 import com.actionbarsherlock.view.SubMenu;
 import com.jobmineplus.mobile.R;
-import com.jobmineplus.mobile.database.pages.PageMapResult;
 import com.jobmineplus.mobile.widgets.JbmnplsAdapterBase;
 import com.jobmineplus.mobile.widgets.JbmnplsAdapterBase.HIGHLIGHTING;
 import com.jobmineplus.mobile.widgets.JbmnplsLoadingAdapterBase;
@@ -67,41 +66,34 @@ public abstract class JbmnplsPageListActivityBase extends JbmnplsPageActivityBas
 
     /**
      * Instead of running a request to get a job list for each tab, we ask the data source
-     * to do it for us (1 database request). Look at getJobsMap for more info.
+     * to do it for us (1 database request). Look at getPageJobsMap for more info.
      */
     @Override
     protected long doOffine() {
-        PageMapResult result =
-                pageDataSource.getPageDataMap(client.getUsername(), getPageName());
-        if (result != null) {
-            HashMap<String, ArrayList<Integer>> idMap = result.idMap;
-            if (idMap != null) {
-                HashMap<String, ArrayList<Job>> retList = jobDataSource.getJobsMap(idMap);
-                if (retList != null) {
-
-                    // Make the job list
-                    HashSet<Integer> ids = new HashSet<Integer>();
-                    for (String tag : lists.keySet()) {
-                        ArrayList<Job> joblist = retList.get(tag);
-                        if (joblist != null) {
-                            getListByTab(tag).addAll(joblist);
-                        }
-
-                        ArrayList<Job> jobs = lists.get(tag);
-                        if (!jobs.isEmpty()) {
-                            for (Job job : jobs) {
-                                if (!ids.contains(job.getId())) {
-                                    ids.add(job.getId());
-                                    allJobs.add(job);
-                                }
-                            }
-                        }
+        String username = client.getUsername();
+        long timestamp = pageDataSource.getPageTimestamp(username, getPageName());
+        HashMap<String, ArrayList<Job>> retList = jobDataSource.getPageJobsMap(username, getPageName(),
+                getListColumns());
+
+        // Make the job list
+        HashSet<Integer> ids = new HashSet<Integer>();
+        for (String tag : lists.keySet()) {
+            ArrayList<Job> joblist = retList.get(tag);
+            if (joblist != null) {
+                getListByTab(tag).addAll(joblist);
+            }
+
+            ArrayList<Job> jobs = lists.get(tag);
+            if (!jobs.isEmpty()) {
+                for (Job job : jobs) {
+                    if (!ids.contains(job.getId())) {
+                        ids.add(job.getId());
+                        allJobs.add(job);
                     }
                 }
             }
-            return result.timestamp;
         }
-        return 0;
+        return timestamp;
     }
 
     @Override
@@ -6,6 +6,11 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.http.NameValuePair;
 import org.apache.http.message.BasicNameValuePair;
@@ -32,7 +37,9 @@ import com.actionbarsherlock.view.Menu;
 import com.actionbarsherlock.view.MenuItem;
 import com.jobmineplus.mobile.R;
 import com.jobmineplus.mobile.activities.SimpleActivityBase;
+import com.jobmineplus.mobile.database.jobs.JobDataSource;
 import com.jobmineplus.mobile.database.pages.PageResult;
+import com.jobmineplus.mobile.exceptions.JbmnplsCancelledException;
 import com.jobmineplus.mobile.exceptions.JbmnplsException;
 import com.jobmineplus.mobile.exceptions.JbmnplsLoggedOutException;
 import com.jobmineplus.mobile.exceptions.JbmnplsLostStateException;
@@ -56,9 +63,10 @@ import com.jobmineplus.mobile.widgets.ListViewPlus.OnVisualRowChangeListener;
 import com.jobmineplus.mobile.widgets.table.SimpleHtmlParser;
 import com.jobmineplus.mobile.widgets.table.TableParser;
 import com.jobmineplus.mobile.widgets.table.TableParserOutline;
+import com.jobmineplus.mobile.widgets.table.TableRow;
 
 public class JobSearch extends JbmnplsPageListActivityBase implements
-                            OnJobSearchListener, TableParser.OnTableParseListener,
+                            OnJobSearchListener,
                             OnScrollListener, OnClickListener, OnVisualRowChangeListener {
 
     //======================
@@ -82,11 +90,14 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
     // Task Queue
     private SearchRequestQueue taskQueue;
 
+    // Parses the pages of a crawl while the next page is requested, the
+    // parser is only used on that thread
+    private final ExecutorService parseThread = Executors.newSingleThreadExecutor();
+    private final TableParser pageParser = new TableParser();
+
     // Shortlist data structures
     private final SparseIntArray jobPageArray = new SparseIntArray(200);
     private Set<Integer> shortlistSet;
-    private List<Integer> readOrNewList;
-    private List<Job> readOrNewJobList;
 
     // Search dialog and its properties
     private JobSearchProperties properties;
@@ -312,13 +323,13 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
 
         // Disciplines
         parser.skipText("UW_CO_JOBSRCH_UW_CO_ADV_DISCP1", "selected=");
-        properties.disciplines1.set(parser.getTextInCurrentElement().replace("&amp;", "&"));
+        properties.disciplines1.set(parser.getTextInCurrentElement());
 
         parser.skipText("UW_CO_JOBSRCH_UW_CO_ADV_DISCP2", "selected=");
-        properties.disciplines2.set(parser.getTextInCurrentElement().replace("&amp;", "&"));
+        properties.disciplines2.set(parser.getTextInCurrentElement());
 
         parser.skipText("UW_CO_JOBSRCH_UW_CO_ADV_DISCP3", "selected=");
-        properties.disciplines3.set(parser.getTextInCurrentElement().replace("&amp;", "&"));
+        properties.disciplines3.set(parser.getTextInCurrentElement());
 
         // Location
         parser.skipText("win0divUW_CO_JOBSRCH_UW_CO_LOCATION", "input");
@@ -345,25 +356,29 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
         properties.acceptChanges();
     }
 
-    @Override
-    public void onRowParse(TableParserOutline outline, Object... jobData) {
-        int id = (Integer)jobData[0];
-
-        if (!jobExists(id)) {
-            APPLY_STATUS appStatus = (APPLY_STATUS)jobData[6];
+    /**
+     * Adds the jobs of the page that are not in the lists yet and reads the
+     * saved ones from the database. This changes the lists so it runs on the
+     * task thread.
+     * @param page
+     */
+    private void addPage(ResultPage page) {
+        ArrayList<Integer> readOrNewIds = new ArrayList<Integer>();
+        ArrayList<Job> readOrNewJobs = new ArrayList<Job>();
+        for (Job job : page.jobs) {
+            int id = job.getId();
+            if (jobExists(id)) {
+                continue;
+            }
             boolean hasBeenPlaced = false;
 
-            Job job = new Job(          id, (String)    jobData[1], (String)jobData[2],
-                    (String)    jobData[4], (Integer)   jobData[5], appStatus,
-                    (Date)      jobData[9], (Integer)   jobData[8]);
-
-            if (appStatus == APPLY_STATUS.ALREADY_APPLIED) {
+            if (job.getApplicationStatus() == APPLY_STATUS.ALREADY_APPLIED) {
                 hasBeenPlaced = true;
                 addJobToListByTabId(PAGES.APPLIED, job);
             }
 
             // Maintain the shortlisted ids database
-            if (((String)jobData[7]).equals("On Short List")) {
+            if (page.shortlisted.contains(id)) {
                 shortlistSet.add(id);
                 hasBeenPlaced = true;
                 addJobToListByTabId(PAGES.SHORTLIST, job);
@@ -373,13 +388,32 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
 
             // If it has not been placed in any tab, then it is new
             if (!hasBeenPlaced) {
-                readOrNewList.add(id);
-                readOrNewJobList.add(job);
+                readOrNewIds.add(id);
+                readOrNewJobs.add(job);
             }
 
             // Place the jobs in different tabs
             addJobToListByTabId(PAGES.ALL, job);
-            addJob(job);
+            addJob(job, page.number);
+        }
+
+        if (!readOrNewIds.isEmpty()) {
+            // Now we can get the jobs from their ids from the database
+            ArrayList<Job> savedJobs = jobDataSource.getJobsByIdList(
+                    readOrNewIds, JobDataSource.SUMMARY_COLUMNS);
+            if (savedJobs != null && !savedJobs.isEmpty()) {
+                for (Job job : savedJobs) {
+                    // Add the job to read if it has description data
+                    if (job.hasDescriptionData()) {
+                        addJobToListByTabId(PAGES.READ, job);
+                    } else {
+                        addJobToListByTabId(PAGES.NEW, job);
+                    }
+                }
+            } else {
+                // Add all the jobs if this is the first time searching
+                getListByTab(PAGES.NEW).addAll(readOrNewJobs);
+            }
         }
     }
 
@@ -417,9 +451,8 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
         return jobPageArray.indexOfKey(id) >= 0;
     }
 
-    @Override
-    protected void addJob(Job job) {
-        jobPageArray.append(job.getId(), taskQueue.getCurrentPageNumber());
+    protected void addJob(Job job, int page) {
+        jobPageArray.append(job.getId(), page);
         super.addJob(job);
     }
 
@@ -439,6 +472,7 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
     @Override
     protected void onDestroy() {
         taskQueue.cancelAllTasks();
+        parseThread.shutdownNow();
         super.onDestroy();
     }
 
@@ -924,6 +958,37 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
     //===========================
     //  All Purpose Task Runner
     //===========================
+    /**
+     * The jobs of one page of results and the page they are on. It is parsed
+     * without changing the lists or reading the database so that it can be
+     * parsed on another thread, then addPage() adds the jobs.
+     */
+    private final class ResultPage implements TableParser.OnTableRowListener {
+        private final int number;
+        private final ArrayList<Job> jobs = new ArrayList<Job>();
+        private final HashSet<Integer> shortlisted = new HashSet<Integer>();
+
+        public ResultPage(int number) {
+            this.number = number;
+        }
+
+        public void parse(TableParser parser, String html) {
+            parser.setOnTableRowListener(this);
+            parser.execute(JOBSEARCH_OUTLINE, html);
+        }
+
+        @Override
+        public void onRowParse(TableRow row) {
+            int id = row.getInt(0);
+            jobs.add(new Job(       id, row.getString(1),   row.getString(2),
+                    row.getString(4),   row.getInt(5),      (APPLY_STATUS) row.getEnum(6),
+                    new Date(row.getLong(9)), row.getInt(8)));
+            if (row.textEquals(7, "On Short List")) {
+                shortlisted.add(id);
+            }
+        }
+    }
+
     private final class SearchRequestQueue extends JbmnplsRequestQueue<Void> {
         public final static int INITIAL_RESULT_COUNT = 25;
         public final static int RESULT_COUNT_100 = 100;
@@ -968,37 +1033,15 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
             return hasLoaded100;
         }
 
-        private void parseHtmlForJobs() {
-            readOrNewList = new ArrayList<Integer>();
-            readOrNewJobList = new ArrayList<Job>();
-            tableParser.execute(JOBSEARCH_OUTLINE, lastSearchedHtml);
-
-            if (!readOrNewList.isEmpty()) {
-                // Now we can get the jobs from their ids from the database
-                ArrayList<Job> jobs = jobDataSource.getJobsByIdList(readOrNewList);
-                if (jobs != null && !jobs.isEmpty()) {
-                    for (int i = 0; i < jobs.size(); i++) {
-                        // Add the job to read if it has description data
-                        Job job = jobs.get(i);
-                        if (job.hasDescriptionData()) {
-                            addJobToListByTabId(PAGES.READ, job);
-                        } else {
-                            addJobToListByTabId(PAGES.NEW, job);
-                        }
-                    }
-                } else if (!readOrNewJobList.isEmpty()) {
-                    // Add all the jobs if this is the first time searching
-                    getListByTab(PAGES.NEW).addAll(readOrNewJobList);
-                }
-            }
-            readOrNewJobList = null;
-            readOrNewList = null;
+        private void parseHtmlForJobs(String html) {
+            ResultPage page = new ResultPage(currentPage);
+            page.parse(tableParser, html);
+            addPage(page);
         }
 
         @Override
         protected Integer doInBackground(Integer... params) throws IOException {
             tableParser = new TableParser();
-            tableParser.setOnTableRowParse(activity);
             ArrayList<Integer> shortlistIds = null;
             SimpleHtmlParser parser = null;
             String response = null;
@@ -1022,7 +1065,7 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
 
                 // Parse the jobs out
                 clearAllLists();
-                parseHtmlForJobs();
+                parseHtmlForJobs(lastSearchedHtml);
                 properties.acceptChanges();
 
                 updatePageJobInfo();
@@ -1042,7 +1085,7 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
                 break;
             case NEXTPAGE:
                 getNextPage();
-                parseHtmlForJobs();
+                parseHtmlForJobs(lastSearchedHtml);
 
                 // If finished loading all the pages, then remove the scroll event
                 if (currentPage != totalPages) {
@@ -1095,9 +1138,7 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
                 if (!hasLoaded100) {
                     view100();
                 }
-                while (currentPage < totalPages) {
-                    getNextPage();
-                }
+                crawlRemainingPages();
                 break;
             case DESCRIPTION:
                 doPost("UW_CO_JOBTITLE_HL$0");
@@ -1139,7 +1180,7 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
         private int view100() throws JbmnplsLoggedOutException, IOException {
             if (!hasLoaded100) {
                 lastSearchedHtml = doPost("UW_CO_JOBRES_VW$hviewall$0");
-                parseHtmlForJobs();
+                parseHtmlForJobs(lastSearchedHtml);
 
                 // Update the page total
                 hasLoaded100 = true;
@@ -1157,6 +1198,60 @@ public class JobSearch extends JbmnplsPageListActivityBase implements
             return NO_PROBLEM;
         }
 
+        /**
+         * Gets and parses every page after the current one. Each page is parsed
+         * on another thread while the next page is being requested, into its
+         * own ResultPage with the number it was requested as. Only this thread
+         * posts so the pages are still requested in ICStateNum order, and the
+         * jobs are added to the lists on this thread in the same order.
+         * @throws JbmnplsLoggedOutException
+         * @throws IOException
+         */
+        private void crawlRemainingPages() throws JbmnplsLoggedOutException, IOException {
+            Future<ResultPage> parsing = null;
+            try {
+                while (currentPage < totalPages) {
+                    getNextPage();
+                    final ResultPage page = new ResultPage(currentPage);
+                    final String html = lastSearchedHtml;
+
+                    // Add the last page so only one page waits to be parsed
+                    addParsedPage(parsing);
+                    parsing = parseThread.submit(new Callable<ResultPage>() {
+                        @Override
+                        public ResultPage call() {
+                            page.parse(pageParser, html);
+                            return page;
+                        }
+                    });
+                }
+                addParsedPage(parsing);
+                parsing = null;
+            } finally {
+                // Stop parsing a page that will not be added
+                if (parsing != null) {
+                    parsing.cancel(true);
+                }
+            }
+        }
+
+        private void addParsedPage(Future<ResultPage> parsing) {
+            if (parsing == null) {
+                return;
+            }
+            try {
+                addPage(parsing.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JbmnplsCancelledException();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new JbmnplsParsingException(e.getCause().getMessage());
+            }
+        }
+
         private int getPrevPage() throws JbmnplsLoggedOutException, IOException {
             if (currentPage == 0) {
                 throw new JbmnplsLostStateException("Cannot go to previous page because current page is at 0.");
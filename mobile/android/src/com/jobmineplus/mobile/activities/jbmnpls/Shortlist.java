@@ -1,5 +1,6 @@
 package com.jobmineplus.mobile.activities.jbmnpls;
 
+import java.io.IOException;
 import java.util.Date;
 
 import android.os.Bundle;
@@ -8,6 +9,7 @@ import android.widget.AdapterView;
 import android.widget.TextView;
 
 import com.jobmineplus.mobile.R;
+import com.jobmineplus.mobile.exceptions.JbmnplsLoggedOutException;
 import com.jobmineplus.mobile.widgets.JbmnplsAdapterBase.Formatter;
 import com.jobmineplus.mobile.widgets.JbmnplsAdapterBase.HIGHLIGHTING;
 import com.jobmineplus.mobile.widgets.JbmnplsHttpClient;
@@ -17,8 +19,10 @@ import com.jobmineplus.mobile.widgets.Job.HEADER;
 import com.jobmineplus.mobile.widgets.TutorialHelper;
 import com.jobmineplus.mobile.widgets.table.TableParser;
 import com.jobmineplus.mobile.widgets.table.TableParserOutline;
+import com.jobmineplus.mobile.widgets.table.TableRow;
+import com.jobmineplus.mobile.widgets.table.TableStreamParser;
 
-public class Shortlist extends JbmnplsListActivityBase implements TableParser.OnTableParseListener {
+public class Shortlist extends JbmnplsListActivityBase implements TableParser.OnTableRowListener {
 
     //======================
     //  Declaration Objects
@@ -58,7 +62,7 @@ public class Shortlist extends JbmnplsListActivityBase implements TableParser.On
         // Create the tutorial and set the content of this activity
         new TutorialHelper(this, R.layout.joblist,
                 R.layout.tutorial_sorting, R.string.pref_seen_sorting_tutorial);
-        parser.setOnTableRowParse(this);
+        parser.setOnTableRowListener(this);
         super.onCreate(savedInstanceState);
     }
 
@@ -79,12 +83,12 @@ public class Shortlist extends JbmnplsListActivityBase implements TableParser.On
     }
 
     @Override
-    public void onRowParse(TableParserOutline outline, Object... jobData) {
+    public void onRowParse(TableRow row) {
         Job job = new Job(  // Shortlist constructor
-                (Integer)           jobData[0],     (String)jobData[1],
-                (String)            jobData[2],     (String)jobData[4],
-                (Job.APPLY_STATUS)  jobData[5],     (Date)  jobData[6],
-                (Integer)           jobData[7]);
+                row.getInt(0),                      row.getString(1),
+                row.getString(2),                   row.getString(4),
+                row.<Job.APPLY_STATUS>getEnum(5),   new Date(row.getLong(6)),
+                row.getInt(7));
         addJob(job);
     }
 
@@ -99,9 +103,25 @@ public class Shortlist extends JbmnplsListActivityBase implements TableParser.On
     }
 
     @Override
-    protected void parseWebpage(String html) {
+    protected String onRequestData(String[] args)
+            throws JbmnplsLoggedOutException, IOException {
+        // Parse the rows while the page downloads instead of after
         clearList();
-        parser.execute(SHORTLIST_OUTLINE, html);
+        TableStreamParser stream = parser.stream(SHORTLIST_OUTLINE);
+        switch (client.getJobmineHtmlIfModified(args[0], stream)) {
+            case READ:
+                stream.finish();
+                return "";
+            case NOT_MODIFIED:
+                return JbmnplsHttpClient.NOT_MODIFIED;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    protected void parseWebpage(String html) {
+        // Not needed because the table is parsed in onRequestData
     }
 
     //=================
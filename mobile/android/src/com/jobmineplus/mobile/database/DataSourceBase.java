@@ -3,17 +3,31 @@ package com.jobmineplus.mobile.database;
 import java.util.ArrayList;
 
 import android.content.ContentValues;
+import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Pair;
 
 public abstract class DataSourceBase {
+    protected final DatabaseEngine engine;
     protected SQLiteDatabase database;
 
+    protected DataSourceBase(Context context) {
+        engine = DatabaseEngine.getInstance(context);
+    }
+
     // ======================
     // Abstract Methods
     // ======================
+    /**
+     * Gets the shared database from the engine again, which opens it if it
+     * was closed. The data source is ready when it is made.
+     */
     public abstract void open();
 
+    /**
+     * Releases what the data source keeps, the shared database stays open
+     */
     public abstract void close();
 
     // ======================
@@ -38,6 +52,57 @@ public abstract class DataSourceBase {
         return affected;
     }
 
+    /**
+     * Compiles one statement that inserts a row or replaces it while keeping
+     * the old value of every column that is bound null, the same as leaving
+     * the column out of the values given to updateElseInsert. Older Androids
+     * do not have "ON CONFLICT DO UPDATE" so the old row is joined in.
+     * The first column is the primary key, bind the value of each column at
+     * its index plus one and execute it once per row.
+     * @param table
+     * @param columns
+     * @param defaults the value a new row gets for a column that is bound
+     *      null, or null if there is none
+     * @return the statement, close it when done
+     */
+    protected SQLiteStatement compileUpsert(String table, String[] columns, String[] defaults) {
+        StringBuilder sb = new StringBuilder("INSERT OR REPLACE INTO ").append(table).append(" (");
+        for (int i = 0; i < columns.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(columns[i]);
+        }
+        sb.append(") SELECT ?1");
+        for (int i = 1; i < columns.length; i++) {
+            sb.append(", COALESCE(?").append(i + 1).append(", existing.").append(columns[i]);
+            if (defaults[i] != null) {
+                sb.append(", ").append(defaults[i]);
+            }
+            sb.append(')');
+        }
+        sb.append(" FROM (SELECT ?1 AS id) AS upsert LEFT JOIN ").append(table)
+            .append(" AS existing ON existing.").append(columns[0]).append(" = upsert.id");
+
+        if (!database.isOpen()) {
+            open();
+        }
+        return database.compileStatement(sb.toString());
+    }
+
+    protected void bindNonNullValue(SQLiteStatement statement, int index, String value) {
+        if (value != null) {
+            statement.bindString(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+
+    protected void bindNonNullValue(SQLiteStatement statement, int index, long value) {
+        if (value != 0) {
+            statement.bindLong(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+
     protected void addNonNullValue(ContentValues values, String column, String value) {
         if (value != null) {
             values.put(column, value);
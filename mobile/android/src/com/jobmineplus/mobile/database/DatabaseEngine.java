@@ -0,0 +1,159 @@
+package com.jobmineplus.mobile.database;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+import android.util.Log;
+
+import com.jobmineplus.mobile.database.jobs.JobDatabaseHelper;
+import com.jobmineplus.mobile.database.users.UserDatabaseHelper;
+import com.jobmineplus.mobile.exceptions.JbmnplsException;
+
+/**
+ * The one connection to each database for the whole process, shared by every
+ * data source, activity and the service.
+ *
+ * Lifecycle: getInstance() makes the engine and each database is opened the
+ * first time it is used. They stay open until the process ends, every write is
+ * committed when it finishes so nothing is lost when Android kills the app.
+ *
+ * Reads run on the thread that asks for them. On Honeycomb and newer the
+ * databases use write-ahead logging so reads do not wait for a write. All
+ * writes go through one writer thread (see write()), so they never compete for
+ * the lock and a write cannot be interleaved with another one's transaction.
+ */
+public final class DatabaseEngine {
+    private static DatabaseEngine sInstance;
+
+    private final JobDatabaseHelper jobHelper;
+    private final UserDatabaseHelper userHelper;
+    private final ExecutorService writer;
+    private volatile Thread writerThread;
+    private SQLiteDatabase jobDatabase;
+    private SQLiteDatabase userDatabase;
+
+    //===============
+    //  Constructor
+    //===============
+    private DatabaseEngine(Context context) {
+        jobHelper = new JobDatabaseHelper(context);
+        userHelper = new UserDatabaseHelper(context);
+        writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "JbmnplsDatabaseWriter");
+                thread.setDaemon(true);
+                writerThread = thread;
+                return thread;
+            }
+        });
+    }
+
+    public static synchronized DatabaseEngine getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new DatabaseEngine(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    //=============
+    //  Databases
+    //=============
+    /**
+     * @return the database of the jobs and pages
+     */
+    public synchronized SQLiteDatabase getJobDatabase() {
+        if (jobDatabase == null || !jobDatabase.isOpen()) {
+            jobDatabase = open(jobHelper.getWritableDatabase());
+        }
+        return jobDatabase;
+    }
+
+    /**
+     * @return the database of the users
+     */
+    public synchronized SQLiteDatabase getUserDatabase() {
+        if (userDatabase == null || !userDatabase.isOpen()) {
+            userDatabase = open(userHelper.getWritableDatabase());
+        }
+        return userDatabase;
+    }
+
+    //==========
+    //  Writes
+    //==========
+    /**
+     * Runs the task on the writer thread and waits for it to finish. Use this
+     * for everything that changes a database. If it is called from a write,
+     * the task is run right away.
+     * @param task
+     * @return the result of the task
+     */
+    public <T> T write(Callable<T> task) {
+        if (Thread.currentThread() == writerThread) {
+            return call(task);
+        }
+        Future<T> future = writer.submit(task);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            // The write still finishes, only this thread stops waiting
+            Thread.currentThread().interrupt();
+            throw new JbmnplsException("Interrupted while waiting to write to the database.");
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Runs the task on the writer thread after the writes before it, without
+     * waiting for it.
+     * @param task
+     */
+    public void post(Runnable task) {
+        if (Thread.currentThread() == writerThread) {
+            task.run();
+        } else {
+            writer.execute(task);
+        }
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    private SQLiteDatabase open(SQLiteDatabase database) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            if (!database.enableWriteAheadLogging()) {
+                Log.w("jbmnplsmbl", "Cannot use write-ahead logging, reads will wait for writes");
+            }
+        }
+        return database;
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        JbmnplsException e = new JbmnplsException("Cannot write to the database.");
+        e.initCause(cause);
+        throw e;
+    }
+}
@@ -3,22 +3,25 @@ package com.jobmineplus.mobile.database.jobs;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
 import com.jobmineplus.mobile.database.DataSourceBase;
+import com.jobmineplus.mobile.database.pages.PageTable;
 import com.jobmineplus.mobile.widgets.Job;
 import com.jobmineplus.mobile.widgets.Job.APPLY_STATUS;
 import com.jobmineplus.mobile.widgets.Job.STATE;
 import com.jobmineplus.mobile.widgets.Job.STATUS;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
-import android.util.Pair;
+import android.database.sqlite.SQLiteStatement;
 import android.util.SparseArray;
 
 public final class JobDataSource extends DataSourceBase {
+    public static final int DEFAULT_BATCH_SIZE = 100;
 
-    // Database fields
-    private JobDatabaseHelper dbHelper;
+    // Database fields, the statement is only used on the writer thread
+    private SQLiteStatement upsertStatement;
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
 
     private final String[] allColumns = {
             JobTable.COLUMN_ID,
@@ -49,46 +52,98 @@ public final class JobDataSource extends DataSourceBase {
             JobTable.COLUMN_INTERVIEWER
     };
 
+    /**
+     * The columns the lists show. The description, its warning and the interview
+     * instructions are left out and read with getJob when a job is opened.
+     */
+    public static final String[] SUMMARY_COLUMNS = {
+            JobTable.COLUMN_ID,
+            JobTable.COLUMN_TITLE,
+            JobTable.COLUMN_EMPLOYER,
+            JobTable.COLUMN_TERM,
+            JobTable.COLUMN_STATE,
+            JobTable.COLUMN_STATUS,
+            JobTable.COLUMN_APP_STATUS,
+            JobTable.COLUMN_LAST_DATE_APPLY,
+            JobTable.COLUMN_NUM_APPS,
+            JobTable.COLUMN_OPENINGS,
+            JobTable.COLUMN_OPEN_DATE_APPLY,
+            JobTable.COLUMN_EMPLOYER_FULL,
+            JobTable.COLUMN_GRADE_REQUIRED,
+            JobTable.COLUMN_LOCATION,
+            JobTable.COLUMN_DISCIPLINES,
+            JobTable.COLUMN_LEVELS,
+            JobTable.COLUMN_HIRING_SUPPORT,
+            JobTable.COLUMN_WORK_SUPPORT,
+            JobTable.COLUMN_INTERVIEW_START_TIME,
+            JobTable.COLUMN_INTERVIEW_END_TIME,
+            JobTable.COLUMN_INTERVIEW_TYPE,
+            JobTable.COLUMN_INTERVIEW_ROOM,
+            JobTable.COLUMN_INTERVIEWER
+    };
+
+    /**
+     * The summary with the interview instructions, the interviews list shows them
+     */
+    public static final String[] INTERVIEW_SUMMARY_COLUMNS =
+            withColumn(SUMMARY_COLUMNS, JobTable.COLUMN_INTERVIEW_INSTRUCTIONS);
+
     public JobDataSource(Context context) {
-        dbHelper = new JobDatabaseHelper(context);
+        super(context);
+        database = engine.getJobDatabase();
     }
 
     @Override
     public void open() {
-        database = dbHelper.getWritableDatabase();
+        database = engine.getJobDatabase();
+        releaseStatements();
     }
 
     @Override
     public void close() {
-        dbHelper.close();
+        releaseStatements();
+    }
+
+    /**
+     * Sets how many jobs addJobs saves in each transaction, so a long list
+     * does not keep the database locked until all of it is saved
+     * @param size
+     */
+    public void setBatchSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The batch size must be more than 0.");
+        }
+        batchSize = size;
     }
 
     // =================
     //  Additions
     // =================
-    public synchronized void addJob(Job job) {
-        internalAddJob(job);
+    public void addJob(final Job job) {
+        engine.write(new Callable<Void>() {
+            @Override
+            public Void call() {
+                internalAddJob(job);
+                return null;
+            }
+        });
     }
 
-    public synchronized void addJobs(ArrayList<Job> jobs) {
+    /**
+     * Saves the jobs with one compiled statement, committing after every
+     * batch of jobs (see setBatchSize). If a job fails, the batches before it
+     * are still saved.
+     * @param jobs
+     */
+    public void addJobs(final ArrayList<Job> jobs) {
         if (!jobs.isEmpty()) {
-            try {
-                database.setLockingEnabled(false);
-                database.beginTransaction();
-                for (Job job : jobs) {          // TODO throwing ConcurrentModificationException
-                    if (job != null) {
-                        internalAddJob(job);
-                    }
+            engine.write(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    internalAddJobs(jobs);
+                    return null;
                 }
-                database.setTransactionSuccessful();
-            } catch(Exception e) {
-                e.printStackTrace();
-            } finally {
-                if (database.isOpen()) {
-                    database.endTransaction();
-                }
-                database.setLockingEnabled(true);
-            }
+            });
         }
     }
 
@@ -108,10 +163,20 @@ public final class JobDataSource extends DataSourceBase {
     }
 
     public ArrayList<Job> getJobsByIdList(String idList) {
-        return cursorToJobListAndClose(getCursorJobsByIdList(idList));
+        return cursorToJobListAndClose(getCursorJobsByIdList(idList, allColumns));
     }
 
     public ArrayList<Job> getJobsByIdList(Iterable<Integer> ids) {
+        return getJobsByIdList(ids, allColumns);
+    }
+
+    /**
+     * Gets the jobs with only the columns given, the others are left null
+     * @param ids
+     * @param columns such as SUMMARY_COLUMNS
+     * @return list of jobs
+     */
+    public ArrayList<Job> getJobsByIdList(Iterable<Integer> ids, String[] columns) {
         // Join the ids
         String idList = "";
         for (int id : ids) {
@@ -119,87 +184,77 @@ public final class JobDataSource extends DataSourceBase {
         }
         idList = idList.substring(0, idList.length() - 1);
 
-        return getJobsByIdList(idList);
+        return cursorToJobListAndClose(getCursorJobsByIdList(idList, columns));
     }
 
     /**
-     * This does its own get job map from id map. The thing is we need to do one database transaction
-     * instead of one for each tab. Therefore we build our sql string, execute it and then add the jobs
-     * into a hashmap. Because the tabs have a mix of jobs, it would be inefficient to get and create the
-     * same job multiple time, we do it once here for the expensive of slightly more loops. Loops should be
-     * faster than more than one transaction.
-     *
-     * @param idMap
-     * @return
+     * Gets the jobs of each tab of a saved page with one join of the page's
+     * jobs and the job table. A job in more than one tab is only made once.
+     * @param username
+     * @param pagename
+     * @param columns the columns to read, such as SUMMARY_COLUMNS
+     * @return map of jobs in the order of each tab, tabs without jobs are not
+     *      in the map
      */
-    public HashMap<String, ArrayList<Job>> getJobsMap(HashMap<String, ArrayList<Integer>> idMap) {
+    public HashMap<String, ArrayList<Job>> getPageJobsMap(String username, String pagename,
+            String[] columns) {
         HashMap<String, ArrayList<Job>> jobTabs = new HashMap<String, ArrayList<Job>>();
-
-        // Build the ids String to get joblist
         SparseArray<Job> jobs = new SparseArray<Job>();
-        StringBuilder sb = new StringBuilder();
-        for (String tag : idMap.keySet()) {
-           ArrayList<Integer> ids = idMap.get(tag);
-            if (ids != null && !ids.isEmpty()) {
-                for (int id : ids) {
-                    if (jobs.indexOfKey(id) < 0) {
-                        jobs.put(id, null);
-                        sb.append(id).append(',');
-                    }
-                }
+        Cursor cursor = getCursorByPage(username, pagename, columns);
+        int tabColumn = allColumns.length + 1;
+        while (cursor.moveToNext()) {
+            String tab = cursor.getString(tabColumn);
+            ArrayList<Job> list = jobTabs.get(tab);
+            if (list == null) {
+                list = new ArrayList<Job>();
+                jobTabs.put(tab, list);
             }
-        }
-        if (sb.length() == 0) {
-            return null;
-        }
-        sb.deleteCharAt(sb.length() - 1);       // Remove last comma
-
-        if (!database.isOpen()) {
-            open();
-        }
-
-        // Get all the jobs
-        Cursor cursor = getCursorJobsByIdList(sb.toString());
-        if (cursor.moveToFirst()) {
-            while (cursor.isAfterLast() == false) {
-                Job job = cursorToJob(cursor);
+            Job job = jobs.get(cursor.getInt(0));
+            if (job == null) {
+                job = cursorToProjectedJob(cursor);
                 jobs.put(job.getId(), job);
-                cursor.moveToNext();
             }
+            list.add(job);
         }
         cursor.close();
-
-        // Finally build the map
-        for (String tag : idMap.keySet()) {
-            ArrayList<Job> list = new ArrayList<Job>();
-            ArrayList<Integer> ids = idMap.get(tag);
-            if (ids != null && !ids.isEmpty()) {
-                for (int id : ids) {
-                    list.add(jobs.get(id));
-                }
-            }
-            jobTabs.put(tag, list);
-        }
-
         return jobTabs;
     }
 
+    /**
+     * Gets the jobs of a saved page that has one list
+     * @param username
+     * @param pagename
+     * @param columns the columns to read, such as SUMMARY_COLUMNS
+     * @return list of jobs, empty if there are none
+     */
+    public ArrayList<Job> getPageJobs(String username, String pagename, String[] columns) {
+        return cursorToJobListAndClose(getCursorByPage(username, pagename, columns));
+    }
+
     public ArrayList<Job> getAllJobs() {
-        Cursor cursor;
-        synchronized (this) {
-            cursor = database.rawQuery("select * from " + JobTable.TABLE_JOB, null);
-        }
+        return getAllJobs(allColumns);
+    }
+
+    public ArrayList<Job> getAllJobs(String[] columns) {
+        Cursor cursor = database.rawQuery("select " + getProjection("", columns)
+                + " from " + JobTable.TABLE_JOB, null);
         return cursorToJobListAndClose(cursor);
     }
 
     // =================
     //  Deletions
     // =================
-    public synchronized void deleteJob(int id) {
-        database.delete(JobTable.TABLE_JOB, JobTable.COLUMN_ID + "=?", new String[] { id + "" });
+    public void deleteJob(final int id) {
+        engine.write(new Callable<Void>() {
+            @Override
+            public Void call() {
+                database.delete(JobTable.TABLE_JOB, JobTable.COLUMN_ID + "=?", new String[] { id + "" });
+                return null;
+            }
+        });
     }
 
-    public synchronized void deleteJob(Job job) {
+    public void deleteJob(Job job) {
         deleteJob(job.getId());
     }
 
@@ -211,12 +266,9 @@ public final class JobDataSource extends DataSourceBase {
         if (!database.isOpen()) {
             open();
         }
-        Cursor cursor = null;
-        synchronized (this) {
-            cursor = database.query(JobTable.TABLE_JOB,
-                    allColumns, JobTable.COLUMN_ID + " = " + id, null,
-                    null, null, null);
-        }
+        Cursor cursor = database.query(JobTable.TABLE_JOB,
+                allColumns, JobTable.COLUMN_ID + " = " + id, null,
+                null, null, null);
         if (cursor != null) {
             cursor.moveToFirst();
         }
@@ -228,15 +280,140 @@ public final class JobDataSource extends DataSourceBase {
         return cursor;
     }
 
-    private synchronized Cursor getCursorJobsByIdList(String idList) {
+    /**
+     * The columns of the job (see getProjection) followed by the tab, in the
+     * order of the page
+     */
+    private Cursor getCursorByPage(String username, String pagename, String[] columns) {
+        if (username == null) {
+            throw new NullPointerException("Username is null trying to get jobs from page.");
+        }
+        if (!database.isOpen()) {
+            open();
+        }
+        return database.rawQuery("select " + getProjection("j.", columns) + ", p." + PageTable.COLUMN_TAB
+                + " from " + PageTable.TABLE_PAGE_JOB + " p join " + JobTable.TABLE_JOB
+                + " j on j." + JobTable.COLUMN_ID + " = p." + PageTable.COLUMN_JOB_ID
+                + " where p." + PageTable.COLUMN_USERNAME + "=? and p." + PageTable.COLUMN_PAGENAME
+                + "=? order by p." + PageTable.COLUMN_TAB + ", p." + PageTable.COLUMN_POSITION,
+                new String[] {username, pagename});
+    }
+
+    private Cursor getCursorJobsByIdList(String idList, String[] columns) {
         // Do query
-        return database.rawQuery(String.format("select * from %s where %s in (%s)", JobTable.TABLE_JOB, JobTable.COLUMN_ID, idList), null);
+        return database.rawQuery(String.format("select %s from %s where %s in (%s)", getProjection("", columns),
+                JobTable.TABLE_JOB, JobTable.COLUMN_ID, idList), null);
+    }
+
+    /**
+     * Selects the columns given in the order of allColumns and NULL in place of
+     * the others, so cursorToJob finds each column at the same index and the big
+     * text of the columns left out is never read. The last column says if the
+     * job has a saved description, checking for null does not read the text.
+     * @param prefix the alias of the job table with a dot, or ""
+     * @param columns
+     * @return the columns to select
+     */
+    private String getProjection(String prefix, String[] columns) {
+        StringBuilder sb = new StringBuilder();
+        for (String column : allColumns) {
+            if (contains(columns, column)) {
+                sb.append(prefix).append(column);
+            } else {
+                sb.append("NULL");
+            }
+            sb.append(", ");
+        }
+        return sb.append(prefix).append(JobTable.COLUMN_DESCRIPTION).append(" IS NOT NULL").toString();
+    }
+
+    private static boolean contains(String[] columns, String column) {
+        for (String c : columns) {
+            if (c.equals(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] withColumn(String[] columns, String column) {
+        String[] newColumns = new String[columns.length + 1];
+        System.arraycopy(columns, 0, newColumns, 0, columns.length);
+        newColumns[columns.length] = column;
+        return newColumns;
+    }
+
+    private void internalAddJobs(ArrayList<Job> jobs) {
+        int size = batchSize;
+        try {
+            database.beginTransaction();
+            SQLiteStatement statement = getUpsertStatement();
+            int count = 0;
+            for (Job job : jobs) {          // TODO throwing ConcurrentModificationException
+                if (job != null) {
+                    bindJob(statement, job);
+                    statement.execute();
+                    if (++count % size == 0) {
+                        database.setTransactionSuccessful();
+                        database.endTransaction();
+                        database.beginTransaction();
+                    }
+                }
+            }
+            database.setTransactionSuccessful();
+        } catch(Exception e) {
+            e.printStackTrace();
+        } finally {
+            if (database.isOpen()) {
+                database.endTransaction();
+            }
+        }
     }
 
     private void internalAddJob(Job job) {
-        int jobId = job.getId();
-        ContentValues values = new ContentValues();
+        SQLiteStatement statement = getUpsertStatement();
+        bindJob(statement, job);
+        statement.execute();
+    }
+
+    /**
+     * The statement is kept until the database is closed since each job
+     * is saved with it
+     */
+    private SQLiteStatement getUpsertStatement() {
+        if (upsertStatement == null) {
+            String[] defaults = new String[allColumns.length];
+            defaults[8] = defaults[9] = defaults[12] = "0";  // Number of apps, openings, grades
+            upsertStatement = compileUpsert(JobTable.TABLE_JOB, allColumns, defaults);
+        }
+        return upsertStatement;
+    }
+
+    /**
+     * The statement is closed on the writer thread so a write that is using
+     * it can finish
+     */
+    private void releaseStatements() {
+        engine.post(new Runnable() {
+            @Override
+            public void run() {
+                closeStatements();
+            }
+        });
+    }
+
+    private void closeStatements() {
+        if (upsertStatement != null) {
+            upsertStatement.close();
+            upsertStatement = null;
+        }
+    }
 
+    /**
+     * Binds the job in the order of allColumns. Values that are not known
+     * (null, 0 or the default) are bound null so the saved value is kept.
+     */
+    private void bindJob(SQLiteStatement statement, Job job) {
         Date lastDateToApply = job.getLastDateToApply();
         long lastDateTimestamp = lastDateToApply == null ? 0 : lastDateToApply.getTime();
         Date openDateToApply = job.getOpenDateToApply();
@@ -246,57 +423,42 @@ public final class JobDataSource extends DataSourceBase {
         Date interviewEnd = job.getInterviewEndTime();
         long interviewEndTimestamp = interviewEnd == null ? 0 : interviewEnd.getTime();
 
-        Job.INTERVIEW_TYPE type = job.getInterviewType();
-
-        // Add Date to the columns
-        values.put(JobTable.COLUMN_ID, jobId);
-        values.put(JobTable.COLUMN_TITLE, job.getTitle());
-        values.put(JobTable.COLUMN_EMPLOYER, job.getEmployer());
-        addNonNullValue(values, JobTable.COLUMN_TERM, job.getTerm());
-
-//        addNonNullValue(values, JobTable.COLUMN_STATE, job.getState().toString());
-//        addNonNullValue(values, JobTable.COLUMN_STATUS, job.getStatus().toString());
-//        addNonNullValue(values, JobTable.COLUMN_APP_STATUS, job.getApplicationStatus().toString());
-
-        addNonNullValue(values, JobTable.COLUMN_LAST_DATE_APPLY, lastDateTimestamp);
-        addNonNullValue(values, JobTable.COLUMN_NUM_APPS, job.getNumberOfApplications());
-        addNonNullValue(values, JobTable.COLUMN_OPENINGS, job.getNumberOfOpenings());
-        addNonNullValue(values, JobTable.COLUMN_OPEN_DATE_APPLY, openDateTimestamp);
-        addNonNullValue(values, JobTable.COLUMN_EMPLOYER_FULL, job.getEmployerFullName());
-        addNonNullValue(values, JobTable.COLUMN_GRADE_REQUIRED, (job.areGradesRequired() ? 1 : 0));
-        addNonNullValue(values, JobTable.COLUMN_LOCATION, job.getLocation());
-        addNonNullValue(values, JobTable.COLUMN_DISCIPLINES, job.getDisciplinesAsString());
-        addNonNullValue(values, JobTable.COLUMN_LEVELS, job.getLevelsAsString());
-        addNonNullValue(values, JobTable.COLUMN_HIRING_SUPPORT, job.getHiringSupportName());
-        addNonNullValue(values, JobTable.COLUMN_WORK_SUPPORT, job.getWorkSupportName());
-        addNonNullValue(values, JobTable.COLUMN_DESCRIPTION, job.getDescription());
-        addNonNullValue(values, JobTable.COLUMN_DESCRIPTION_WARNING, job.getDescriptionWarning());
-
-        // Interview Data
-        addNonNullValue(values, JobTable.COLUMN_INTERVIEW_START_TIME, interviewStartTimestamp);
-        addNonNullValue(values, JobTable.COLUMN_INTERVIEW_END_TIME, interviewEndTimestamp);
-        addNonNullValue(values, JobTable.COLUMN_INTERVIEW_TYPE, type == null ? null : type.toString());
-        addNonNullValue(values, JobTable.COLUMN_INTERVIEW_ROOM, job.getRoomInfo());
-        addNonNullValue(values, JobTable.COLUMN_INTERVIEW_INSTRUCTIONS, job.getInstructions());
-        addNonNullValue(values, JobTable.COLUMN_INTERVIEWER, job.getInterviewer());
-
-        // Check the status values
-        STATE state = job.getState();
-        STATUS status = job.getStatus();
-        APPLY_STATUS appStatus = job.getApplicationStatus();
-        if (state != STATE.getDefault()) {
-            values.put( JobTable.COLUMN_STATE, state.toString());
-        }
-        if (status != STATUS.getDefault()) {
-            values.put( JobTable.COLUMN_STATUS, status.toString());
-        }
-        if (appStatus != APPLY_STATUS.getDefault()) {
-            values.put( JobTable.COLUMN_APP_STATUS, appStatus.toString());
-        }
+        statement.bindLong(1, job.getId());                                            // Id
+        bindNonNullValue(statement, 2, job.getTitle());                                // Title
+        bindNonNullValue(statement, 3, job.getEmployer());                             // Employer
+        bindNonNullValue(statement, 4, job.getTerm());                                 // Term
+        bindOrdinal(statement, 5, job.getState(), STATE.getDefault());                 // State
+        bindOrdinal(statement, 6, job.getStatus(), STATUS.getDefault());               // Status
+        bindOrdinal(statement, 7, job.getApplicationStatus(), APPLY_STATUS.getDefault()); // Application Status
+        bindNonNullValue(statement, 8, lastDateTimestamp);                             // Last date apply
+        bindNonNullValue(statement, 9, job.getNumberOfApplications());                 // Number of apps
+        bindNonNullValue(statement, 10, job.getNumberOfOpenings());                    // Openings
+        bindNonNullValue(statement, 11, openDateTimestamp);                            // Open date to apply
+        bindNonNullValue(statement, 12, job.getEmployerFullName());                    // Employer fullname
+        bindNonNullValue(statement, 13, job.areGradesRequired() ? 1 : 0);              // Grades required
+        bindNonNullValue(statement, 14, job.getLocation());                            // Location
+        bindNonNullValue(statement, 15, job.getDisciplinesAsString());                 // Disciplines
+        bindNonNullValue(statement, 16, job.getLevelsAsString());                      // Levels
+        bindNonNullValue(statement, 17, job.getHiringSupportName());                   // Hiring support
+        bindNonNullValue(statement, 18, job.getWorkSupportName());                     // Work support
+        bindNonNullValue(statement, 19, job.getDescription());                         // Description
+        bindNonNullValue(statement, 20, job.getDescriptionWarning());                  // Description warning
+
+        // Interview data
+        bindNonNullValue(statement, 21, interviewStartTimestamp);                      // Interview start time
+        bindNonNullValue(statement, 22, interviewEndTimestamp);                        // Interview end time
+        bindOrdinal(statement, 23, job.getInterviewType(), null);                      // Interview type
+        bindNonNullValue(statement, 24, job.getRoomInfo());                            // Interview room
+        bindNonNullValue(statement, 25, job.getInstructions());                        // Interview instructions
+        bindNonNullValue(statement, 26, job.getInterviewer());                         // Interviewer
+    }
 
-        ArrayList<Pair<String, Object>> where = new ArrayList<Pair<String,Object>>();
-        where.add(new Pair<String, Object>("_id", jobId));
-        updateElseInsert(JobTable.TABLE_JOB, where, values);
+    private void bindOrdinal(SQLiteStatement statement, int index, Enum<?> value, Enum<?> unknown) {
+        if (value != null && value != unknown) {
+            statement.bindLong(index, value.ordinal());
+        } else {
+            statement.bindNull(index);
+        }
     }
 
     private ArrayList<Job> cursorToJobListAndClose(Cursor cursor) {
@@ -306,7 +468,7 @@ public final class JobDataSource extends DataSourceBase {
         ArrayList<Job> jobs = new ArrayList<Job>(cursor.getCount());
         if (cursor.moveToFirst()) {
             while (cursor.isAfterLast() == false) {
-                jobs.add(cursorToJob(cursor));
+                jobs.add(cursorToProjectedJob(cursor));
                 cursor.moveToNext();
             }
         }
@@ -320,9 +482,9 @@ public final class JobDataSource extends DataSourceBase {
                 cursor.getString(1),    // Title
                 cursor.getString(2),    // Employer
                 cursor.getString(3),    // Term
-                cursor.getString(4),    // State
-                cursor.getString(5),    // Status
-                cursor.getString(6),    // Application Status
+                getOrdinal(cursor, 4),  // State
+                getOrdinal(cursor, 5),  // Status
+                getOrdinal(cursor, 6),  // Application Status
                 cursor.getLong(7),      // Last date apply
                 cursor.getInt(8),       // Number of apps
                 cursor.getInt(9),       // Openings
@@ -340,11 +502,23 @@ public final class JobDataSource extends DataSourceBase {
                 // Interview data
                 cursor.getLong(20),     // Interview start time
                 cursor.getLong(21),     // Interview end time
-                cursor.getString(22),   // Interview type
+                getOrdinal(cursor, 22), // Interview type
                 cursor.getString(23),   // Interview room
                 cursor.getString(24),   // Interview instructions
                 cursor.getString(25)    // Interviewer
         );
     }
 
+    /**
+     * Reads a row selected with getProjection
+     */
+    private Job cursorToProjectedJob(Cursor cursor) {
+        Job job = cursorToJob(cursor);
+        job.setHasSavedDescription(cursor.getInt(allColumns.length) == 1);
+        return job;
+    }
+
+    private int getOrdinal(Cursor cursor, int column) {
+        return cursor.isNull(column) ? -1 : cursor.getInt(column);
+    }
 }
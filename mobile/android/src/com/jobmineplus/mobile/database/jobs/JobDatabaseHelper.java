@@ -1,5 +1,7 @@
 package com.jobmineplus.mobile.database.jobs;
 
+import com.jobmineplus.mobile.database.pages.PageTable;
+
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
@@ -7,20 +9,26 @@ import android.database.sqlite.SQLiteOpenHelper;
 public class JobDatabaseHelper extends SQLiteOpenHelper {
 
     private static final String DATABASE_NAME = "jobtable.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 4;
+
+    private final Context context;
 
     public JobDatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.context = context;
     }
 
     // Method is called during create of the database
     @Override
     public void onCreate(SQLiteDatabase database) {
         JobTable.onCreate(database);
+        PageTable.onCreate(database);
+        PageTable.importLegacyPages(database, context);
     }
     
     public void dropTable(SQLiteDatabase database) {
         JobTable.dropTable(database);
+        PageTable.dropTable(database);
     }
 
     // Method is called during an upgrade of the database
@@ -28,5 +36,9 @@ public class JobDatabaseHelper extends SQLiteOpenHelper {
     public void onUpgrade(SQLiteDatabase database, int oldVersion,
             int newVersion) {
         JobTable.onUpgrade(database, oldVersion, newVersion);
+        PageTable.onUpgrade(database, oldVersion, newVersion);
+        if (oldVersion < 3) {
+            PageTable.importLegacyPages(database, context);
+        }
     }
 }
@@ -1,5 +1,8 @@
 package com.jobmineplus.mobile.database.jobs;
 
+import com.jobmineplus.mobile.widgets.Job;
+
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
@@ -47,6 +50,8 @@ public class JobTable {
 
     // Database creation SQL statement
     // Dates are integers since we cannot properly store dates
+    // The state, statuses and interview type are the ordinals of their enums,
+    // so new enum values must be added at the end
     private static final String DATABASE_CREATE = "create table "
             + TABLE_JOB
             + "("
@@ -54,9 +59,9 @@ public class JobTable {
             + COLUMN_TITLE + " text not null, "
             + COLUMN_EMPLOYER + " text not null, "
             + COLUMN_TERM + " text, "
-            + COLUMN_STATE + " text, "
-            + COLUMN_STATUS + " text, "
-            + COLUMN_APP_STATUS + " text, "
+            + COLUMN_STATE + " integer, "
+            + COLUMN_STATUS + " integer, "
+            + COLUMN_APP_STATUS + " integer, "
             + COLUMN_LAST_DATE_APPLY + " integer, "
             + COLUMN_NUM_APPS + " integer default 0, "
             + COLUMN_OPENINGS + " integer default 0, "
@@ -72,7 +77,7 @@ public class JobTable {
             + COLUMN_DESCRIPTION_WARNING + " text, "
             + COLUMN_INTERVIEW_START_TIME + " integer, "
             + COLUMN_INTERVIEW_END_TIME + " integer, "
-            + COLUMN_INTERVIEW_TYPE + " text, "
+            + COLUMN_INTERVIEW_TYPE + " integer, "
             + COLUMN_INTERVIEW_ROOM + " text, "
             + COLUMN_INTERVIEW_INSTRUCTIONS + " text, "
             + COLUMN_INTERVIEWER + " text "
@@ -88,10 +93,60 @@ public class JobTable {
 
     public static void onUpgrade(SQLiteDatabase database, int oldVersion,
             int newVersion) {
-        Log.w(TAG, "Updating database from version" + oldVersion
-                + " to " + newVersion
-                + ", which will destroy all old data");
-        dropTable(database);
+        // Later versions only changed the page tables, the job table is the same
+        if (oldVersion < 2) {
+            Log.w(TAG, "Updating database from version 1 to 2, storing enums as ordinals");
+            storeEnumsAsOrdinals(database);
+        }
+    }
+
+    /**
+     * Version 1 stored the names of the enums, this copies the jobs into a
+     * table that stores their ordinals instead. Names that do not match
+     * become null like the defaults.
+     * @param database
+     */
+    private static void storeEnumsAsOrdinals(SQLiteDatabase database) {
+        String oldTable = TABLE_JOB + "_old";
+        database.execSQL("ALTER TABLE " + TABLE_JOB + " RENAME TO " + oldTable);
         onCreate(database);
+        database.execSQL("INSERT INTO " + TABLE_JOB + " SELECT "
+                + COLUMN_ID + ", "
+                + COLUMN_TITLE + ", "
+                + COLUMN_EMPLOYER + ", "
+                + COLUMN_TERM + ", "
+                + ordinalOf(COLUMN_STATE, Job.STATE.values()) + ", "
+                + ordinalOf(COLUMN_STATUS, Job.STATUS.values()) + ", "
+                + ordinalOf(COLUMN_APP_STATUS, Job.APPLY_STATUS.values()) + ", "
+                + COLUMN_LAST_DATE_APPLY + ", "
+                + COLUMN_NUM_APPS + ", "
+                + COLUMN_OPENINGS + ", "
+                + COLUMN_OPEN_DATE_APPLY + ", "
+                + COLUMN_EMPLOYER_FULL + ", "
+                + COLUMN_GRADE_REQUIRED + ", "
+                + COLUMN_LOCATION + ", "
+                + COLUMN_DISCIPLINES + ", "
+                + COLUMN_LEVELS + ", "
+                + COLUMN_HIRING_SUPPORT + ", "
+                + COLUMN_WORK_SUPPORT + ", "
+                + COLUMN_DESCRIPTION + ", "
+                + COLUMN_DESCRIPTION_WARNING + ", "
+                + COLUMN_INTERVIEW_START_TIME + ", "
+                + COLUMN_INTERVIEW_END_TIME + ", "
+                + ordinalOf(COLUMN_INTERVIEW_TYPE, Job.INTERVIEW_TYPE.values()) + ", "
+                + COLUMN_INTERVIEW_ROOM + ", "
+                + COLUMN_INTERVIEW_INSTRUCTIONS + ", "
+                + COLUMN_INTERVIEWER
+                + " FROM " + oldTable);
+        database.execSQL("DROP TABLE " + oldTable);
+    }
+
+    private static String ordinalOf(String column, Enum<?>[] values) {
+        StringBuilder sb = new StringBuilder("CASE ").append(column);
+        for (Enum<?> value : values) {
+            sb.append(" WHEN ").append(DatabaseUtils.sqlEscapeString(value.toString()))
+                .append(" THEN ").append(value.ordinal());
+        }
+        return sb.append(" END").toString();
     }
 }
@@ -3,31 +3,46 @@ package com.jobmineplus.mobile.database.pages;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
-import android.util.Pair;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteStatement;
 
 import com.jobmineplus.mobile.database.DataSourceBase;
 import com.jobmineplus.mobile.widgets.Job;
 
 public final class PageDataSource extends DataSourceBase{
-    // Database fields
-    private final PageDatabaseHelper dbHelper;
+    // Both the page and its jobs are found by the username and pagename
+    private static final String PAGE_WHERE = PageTable.COLUMN_USERNAME + "=? AND "
+            + PageTable.COLUMN_PAGENAME + "=?";
+
+    // The timestamp of each user's pages, shared by every data source since they
+    // all save into the same database. Pages in the map with null were never saved.
+    private static final HashMap<String, Long> timestamps = new HashMap<String, Long>();
+
+    // Database fields, the pages are in the job database. The timestamp statement
+    // is used while holding the cache, the others only on the writer thread.
+    private SQLiteStatement timestampStatement;
+    private SQLiteStatement upsertPageStatement;
+    private SQLiteStatement touchPageStatement;
+    private SQLiteStatement replaceJobStatement;
 
     public PageDataSource(Context context) {
-        dbHelper = new PageDatabaseHelper(context);
+        super(context);
+        database = engine.getJobDatabase();
     }
 
     @Override
     public void open() {
-        database = dbHelper.getWritableDatabase();
+        database = engine.getJobDatabase();
+        releaseStatements();
     }
 
     @Override
     public void close() {
-        dbHelper.close();
+        releaseStatements();
     }
 
     public void addPageIds(String username, String pagename, ArrayList<Integer> jobIds) {
@@ -35,21 +50,11 @@ public final class PageDataSource extends DataSourceBase{
         addPageIds(username, pagename, jobIds, now.getTime());
     }
 
-    public synchronized void addPageIds(String username, String pagename, ArrayList<Integer> jobIds,
+    public void addPageIds(String username, String pagename, ArrayList<Integer> jobIds,
             long timestamp) {
-        String joblist = "";
-        if (!jobIds.isEmpty()) {
-            // Make list of jobs as string, remove last comma
-            StringBuilder sb = new StringBuilder();
-            for (int id : jobIds) {
-                sb.append(id).append(',');
-            }
-            if (sb.charAt(sb.length() - 1) == ',') {
-                sb.deleteCharAt(sb.length() - 1);
-            }
-            joblist = sb.toString();
-        }
-        internalAddPage(username, pagename, joblist, timestamp);
+        HashMap<String, ArrayList<Integer>> jobMapIds = new HashMap<String, ArrayList<Integer>>();
+        jobMapIds.put(PageTable.NO_TAB, jobIds);
+        internalAddPage(username, pagename, jobMapIds, timestamp);
     }
 
     public void addPage(String username, String pagename, ArrayList<Job> jobs) {
@@ -57,23 +62,11 @@ public final class PageDataSource extends DataSourceBase{
         addPage(username, pagename, jobs, now.getTime());
     }
 
-    public synchronized void addPage(String username, String pagename, ArrayList<Job> jobs,
+    public void addPage(String username, String pagename, ArrayList<Job> jobs,
             long timestamp) {
-        String joblist = "";
-        if (!jobs.isEmpty()) {
-            // Make list of jobs as string, remove last comma
-            StringBuilder sb = new StringBuilder();
-            for (Job job : jobs) {
-                if (job != null) {
-                    sb.append(job.getId()).append(',');
-                }
-            }
-            if (sb.charAt(sb.length() - 1) == ',') {
-                sb.deleteCharAt(sb.length() - 1);
-            }
-            joblist = sb.toString();
-        }
-        internalAddPage(username, pagename, joblist, timestamp);
+        HashMap<String, ArrayList<Integer>> jobMapIds = new HashMap<String, ArrayList<Integer>>();
+        jobMapIds.put(PageTable.NO_TAB, jobsToIds(jobs));
+        internalAddPage(username, pagename, jobMapIds, timestamp);
     }
 
     public void addPageIds(String username, String pagename, HashMap<String, ArrayList<Integer>> jobMapIds) {
@@ -81,23 +74,9 @@ public final class PageDataSource extends DataSourceBase{
         addPageIds(username, pagename, jobMapIds, now.getTime());
     }
 
-    public synchronized void addPageIds(String username, String pagename, HashMap<String, ArrayList<Integer>> jobMapIds,
+    public void addPageIds(String username, String pagename, HashMap<String, ArrayList<Integer>> jobMapIds,
             long timestamp) {
-        // Build the string
-        StringBuilder sb = new StringBuilder();
-        for (String key : jobMapIds.keySet()) {
-            ArrayList<Integer> ids = jobMapIds.get(key);
-            sb.append(key).append(':');
-            for (int id : ids) {
-                sb.append(id).append(',');
-            }
-            if (sb.charAt(sb.length() - 1) == ',') {
-                sb.deleteCharAt(sb.length() - 1);
-            }
-            sb.append('|');
-        }
-        sb.deleteCharAt(sb.length() - 1);
-        internalAddPage(username, pagename, sb.toString(), timestamp);
+        internalAddPage(username, pagename, jobMapIds, timestamp);
     }
 
     public void addPage(String username, String pagename, HashMap<String, ArrayList<Job>> jobMap) {
@@ -105,25 +84,39 @@ public final class PageDataSource extends DataSourceBase{
         addPage(username, pagename, jobMap, now.getTime());
     }
 
-    public synchronized void addPage(String username, String pagename, HashMap<String, ArrayList<Job>> jobMap,
+    public void addPage(String username, String pagename, HashMap<String, ArrayList<Job>> jobMap,
             long timestamp) {
-        // Build the string
-        StringBuilder sb = new StringBuilder();
-        for (String key : jobMap.keySet()) {
-            ArrayList<Job> jobs = jobMap.get(key);
-            sb.append(key).append(':');
-            for (Job job : jobs) {
-                if (job != null) {
-                    sb.append(job.getId()).append(',');
+        HashMap<String, ArrayList<Integer>> jobMapIds = new HashMap<String, ArrayList<Integer>>();
+        for (String tab : jobMap.keySet()) {
+            jobMapIds.put(tab, jobsToIds(jobMap.get(tab)));
+        }
+        internalAddPage(username, pagename, jobMapIds, timestamp);
+    }
+
+    /**
+     * Only updates the timestamp of the page, used when the page was downloaded
+     * again but did not change.
+     * @param username
+     * @param pagename
+     * @param timestamp
+     * @return true if the page exists and was updated
+     */
+    public boolean touchPage(final String username, final String pagename, final long timestamp) {
+        return engine.write(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                if (lookupTimestamp(username, pagename) == null) {
+                    return false;
                 }
+                SQLiteStatement statement = getTouchPageStatement();
+                statement.bindLong(1, timestamp);
+                statement.bindString(2, username);
+                statement.bindString(3, pagename);
+                statement.execute();
+                cacheTimestamp(username, pagename, timestamp);
+                return true;
             }
-            if (sb.charAt(sb.length() - 1) == ',') {
-                sb.deleteCharAt(sb.length() - 1);
-            }
-            sb.append('|');
-        }
-        sb.deleteCharAt(sb.length() - 1);
-        internalAddPage(username, pagename, sb.toString(), timestamp);
+        });
     }
 
     /**
@@ -131,128 +124,282 @@ public final class PageDataSource extends DataSourceBase{
      * @param pagename
      * @return list of ids, null if empty
      */
-    public synchronized ArrayList<Integer> getJobsIds(String username, String pagename) {
-        Cursor cursor = getCursorFromPage(username, pagename, PageTable.COLUMN_JOBLIST);
-        if (cursor == null) { return null; }
-        return cursorToJobIds(cursor);
+    public ArrayList<Integer> getJobsIds(String username, String pagename) {
+        ArrayList<Integer> ids = new ArrayList<Integer>();
+        for (ArrayList<Integer> tabIds : getSavedIds(username, pagename).values()) {
+            ids.addAll(tabIds);
+        }
+        return ids.isEmpty() ? null : ids;
     }
 
-    public synchronized HashMap<String, ArrayList<Integer>> getJobsIdMap(String username, String pagename) {
-        Cursor cursor = getCursorFromPage(username, pagename, PageTable.COLUMN_JOBLIST);
-        if (cursor == null) { return null; }
-        return cursorToJobsMap(cursor);
+    /**
+     * Returns the ids of jobs of each tab of the page, tabs without jobs are
+     * not in the map
+     * @param username
+     * @param pagename
+     * @return map of ids, null if the page was never saved
+     */
+    public HashMap<String, ArrayList<Integer>> getJobsIdMap(String username, String pagename) {
+        if (lookupTimestamp(username, pagename) == null) { return null; }
+        return getSavedIds(username, pagename);
     }
 
-    public synchronized PageResult getPageData(String username, String pagename) {
-        Cursor cursor = getCursorFromPage(username, pagename, PageTable.COLUMN_JOBLIST, PageTable.COLUMN_TIME);
-        if (cursor == null) { return null; }
+    public PageResult getPageData(String username, String pagename) {
+        Long time = lookupTimestamp(username, pagename);
+        if (time == null) { return null; }
+        return new PageResult(getJobsIds(username, pagename), time);
+    }
 
-        long time = cursor.getLong(1);
-        return new PageResult(cursorToJobIds(cursor), time);
+    public PageMapResult getPageDataMap(String username, String pagename) {
+        Long time = lookupTimestamp(username, pagename);
+        if (time == null) { return null; }
+        return new PageMapResult(getSavedIds(username, pagename), time);
     }
 
-    public synchronized PageMapResult getPageDataMap(String username, String pagename) {
-        Cursor cursor = getCursorFromPage(username, pagename, PageTable.COLUMN_JOBLIST, PageTable.COLUMN_TIME);
-        if (cursor == null) { return null; }
+    /**
+     * Returns when the page was last saved, the jobs of the page can be read
+     * with JobDataSource.getPageJobs. After the first time this is only read
+     * from memory.
+     * @param username
+     * @param pagename
+     * @return the timestamp, 0 if the page was never saved
+     */
+    public long getPageTimestamp(String username, String pagename) {
+        Long time = lookupTimestamp(username, pagename);
+        return time == null ? 0 : time;
+    }
 
-        long time = cursor.getLong(1);
-        return new PageMapResult(cursorToJobsMap(cursor), time);
+    //===================
+    //  Private Methods
+    //===================
+    private ArrayList<Integer> jobsToIds(ArrayList<Job> jobs) {
+        ArrayList<Integer> ids = new ArrayList<Integer>(jobs.size());
+        for (Job job : jobs) {
+            if (job != null) {
+                ids.add(job.getId());
+            }
+        }
+        return ids;
     }
 
-    public synchronized ArrayList<Integer> cursorToJobIds(Cursor cursor) {
-        String retStr = cursor.getString(0);
-        if (retStr.length() == 0) {
-            cursor.close();
-            return null;
+    /**
+     * Gets the timestamp of the page from the cache, or reads it once from the
+     * database. The cache is locked while reading so a page saved at the same
+     * time cannot be replaced by the older timestamp.
+     * @return the timestamp, null if the page was never saved
+     */
+    private Long lookupTimestamp(String username, String pagename) {
+        if (username == null) {
+            throw new NullPointerException("Username is null trying to get page.");
         }
-        String[] idStrings = retStr.split(",");
-        ArrayList<Integer> ids = new ArrayList<Integer>(idStrings.length);
-        for (int i = 0; i < idStrings.length; i++) {
+        String key = getCacheKey(username, pagename);
+        synchronized (timestamps) {
+            if (timestamps.containsKey(key)) {
+                return timestamps.get(key);
+            }
+            Long time;
+            SQLiteStatement statement = getTimestampStatement();
+            statement.bindString(1, username);
+            statement.bindString(2, pagename);
             try {
-                ids.add(Integer.parseInt(idStrings[i]));
-            } catch(NumberFormatException e) {
-                e.printStackTrace();
+                time = statement.simpleQueryForLong();
+            } catch (SQLiteDoneException e) {
+                time = null;        // No page
             }
+            timestamps.put(key, time);
+            return time;
         }
-        cursor.close();
-        return ids;
     }
 
-    private HashMap<String, ArrayList<Integer>> cursorToJobsMap(Cursor cursor) {
-        String tabt = cursor.getString(0);
-        String[] tabString = tabt.split("\\|");
+    private void cacheTimestamp(String username, String pagename, long timestamp) {
+        synchronized (timestamps) {
+            timestamps.put(getCacheKey(username, pagename), timestamp);
+        }
+    }
 
-        HashMap<String, ArrayList<Integer>> jobMap = new HashMap<String, ArrayList<Integer>>();
+    private String getCacheKey(String username, String pagename) {
+        return username + '\n' + pagename;
+    }
 
-        for (String str : tabString) {
-            int colonPos =  str.indexOf(':');
-            if (colonPos == -1) {
-                continue;
-            }
-            String tag = str.substring(0, colonPos);
-            String retStr = str.substring(colonPos + 1);
-            if (retStr.length() == 0) {
-                jobMap.put(tag, null);
-                continue;
-            }
-            String[] idStrings = retStr.split(",");
-            ArrayList<Integer> ids = new ArrayList<Integer>(idStrings.length);
-            for (int i = 0; i < idStrings.length; i++) {
-                ids.add(Integer.parseInt(idStrings[i]));
-            }
-            jobMap.put(tag, ids);
+    //==============
+    //  Statements
+    //==============
+    /**
+     * The statements are kept until the database is closed, they use the
+     * unique index of the username and pagename
+     */
+    private SQLiteStatement getTimestampStatement() {
+        if (timestampStatement == null) {
+            timestampStatement = compile("SELECT " + PageTable.COLUMN_TIME + " FROM "
+                    + PageTable.TABLE_PAGE + " WHERE " + PAGE_WHERE);
         }
-        cursor.close();
-        return jobMap;
+        return timestampStatement;
     }
 
-    private Cursor getCursorFromPage(String username, String pagename, String... columns) {
-        if (username == null) {
-            throw new NullPointerException("Username is null trying to get cursor from page.");
+    /**
+     * Keeps the id of the page if it was saved before
+     */
+    private SQLiteStatement getUpsertPageStatement() {
+        if (upsertPageStatement == null) {
+            upsertPageStatement = compile("INSERT OR REPLACE INTO " + PageTable.TABLE_PAGE + " ("
+                    + PageTable.COLUMN_ID + ", " + PageTable.COLUMN_USERNAME + ", "
+                    + PageTable.COLUMN_PAGENAME + ", " + PageTable.COLUMN_TIME + ") VALUES ((SELECT "
+                    + PageTable.COLUMN_ID + " FROM " + PageTable.TABLE_PAGE + " WHERE "
+                    + PageTable.COLUMN_USERNAME + "=?1 AND " + PageTable.COLUMN_PAGENAME
+                    + "=?2), ?1, ?2, ?3)");
         }
-        // Build query
-        StringBuilder sb = new StringBuilder();
-        sb.append("select ");
-        for (String column : columns) {
-            sb.append(column).append(',');
+        return upsertPageStatement;
+    }
+
+    private SQLiteStatement getTouchPageStatement() {
+        if (touchPageStatement == null) {
+            touchPageStatement = compile("UPDATE " + PageTable.TABLE_PAGE + " SET "
+                    + PageTable.COLUMN_TIME + "=? WHERE " + PAGE_WHERE);
         }
-        sb.deleteCharAt(sb.length() - 1);       // Remove last comma
+        return touchPageStatement;
+    }
 
-        // select <columns> from <table> where pageCol='page' and userCol='username'
-        sb.append(" from ").append(PageTable.TABLE_PAGE).append(' ')
-        .append(" where ").append(PageTable.COLUMN_PAGENAME).append("='")
-        .append(pagename).append("' and ").append(PageTable.COLUMN_USERNAME)
-        .append("='").append(username).append('\'');
+    private SQLiteStatement getReplaceJobStatement() {
+        if (replaceJobStatement == null) {
+            replaceJobStatement = compile("INSERT OR REPLACE INTO "
+                    + PageTable.TABLE_PAGE_JOB + " (" + PageTable.COLUMN_USERNAME
+                    + ", " + PageTable.COLUMN_PAGENAME + ", " + PageTable.COLUMN_TAB
+                    + ", " + PageTable.COLUMN_POSITION + ", " + PageTable.COLUMN_JOB_ID
+                    + ") VALUES (?, ?, ?, ?, ?)");
+        }
+        return replaceJobStatement;
+    }
 
-        // Run query
+    private SQLiteStatement compile(String sql) {
         if (!database.isOpen()) {
             open();
         }
-        Cursor cursor = database.rawQuery(sb.toString(), null);
-        if (cursor != null) {
-            cursor.moveToFirst();
+        return database.compileStatement(sql);
+    }
+
+    /**
+     * The statements are closed on the writer thread after the writes using
+     * them are done
+     */
+    private void releaseStatements() {
+        engine.post(new Runnable() {
+            @Override
+            public void run() {
+                closeStatements();
+            }
+        });
+    }
+
+    private void closeStatements() {
+        synchronized (timestamps) {
+            if (timestampStatement != null) {
+                timestampStatement.close();
+                timestampStatement = null;
+            }
         }
-        if (cursor.isAfterLast()) {
-            cursor.close();
-            return null;
+        SQLiteStatement[] statements = {upsertPageStatement, touchPageStatement, replaceJobStatement};
+        for (SQLiteStatement statement : statements) {
+            if (statement != null) {
+                statement.close();
+            }
         }
-        return cursor;
+        upsertPageStatement = touchPageStatement = replaceJobStatement = null;
     }
 
-    private void internalAddPage(String username, String pagename,
-            String jobsString, long timestamp) {
+    /**
+     * Reads the saved ids of each tab of the page in order
+     */
+    private HashMap<String, ArrayList<Integer>> getSavedIds(String username, String pagename) {
+        if (username == null) {
+            throw new NullPointerException("Username is null trying to get ids from page.");
+        }
+        if (!database.isOpen()) {
+            open();
+        }
+        HashMap<String, ArrayList<Integer>> jobMap = new HashMap<String, ArrayList<Integer>>();
+        Cursor cursor = database.query(PageTable.TABLE_PAGE_JOB,
+                new String[] {PageTable.COLUMN_TAB, PageTable.COLUMN_JOB_ID}, PAGE_WHERE,
+                new String[] {username, pagename}, null, null,
+                PageTable.COLUMN_TAB + ", " + PageTable.COLUMN_POSITION);
+        while (cursor.moveToNext()) {
+            String tab = cursor.getString(0);
+            ArrayList<Integer> ids = jobMap.get(tab);
+            if (ids == null) {
+                ids = new ArrayList<Integer>();
+                jobMap.put(tab, ids);
+            }
+            ids.add(cursor.getInt(1));
+        }
+        cursor.close();
+        return jobMap;
+    }
 
-        ContentValues values = new ContentValues();
-        addNonNullValue(values, PageTable.COLUMN_USERNAME, username);
-        addNonNullValue(values, PageTable.COLUMN_PAGENAME, pagename);
-        addNonNullValue(values, PageTable.COLUMN_JOBLIST, jobsString);
-        addNonNullValue(values, PageTable.COLUMN_TIME, timestamp);
+    private void internalAddPage(final String username, final String pagename,
+            final HashMap<String, ArrayList<Integer>> jobMapIds, final long timestamp) {
+        if (username == null) {
+            throw new NullPointerException("Username is null trying to add page.");
+        }
+        engine.write(new Callable<Void>() {
+            @Override
+            public Void call() {
+                savePage(username, pagename, jobMapIds, timestamp);
+                return null;
+            }
+        });
+    }
 
-        // Where statement
-        ArrayList<Pair<String, Object>> where = new ArrayList<Pair<String,Object>>();
-        where.add(new Pair<String, Object>(PageTable.COLUMN_PAGENAME, pagename));
-        where.add(new Pair<String, Object>(PageTable.COLUMN_USERNAME, username));
+    /**
+     * Saves the page and only writes the rows of the page's jobs that changed
+     * since it was last saved: positions that now have another job are replaced,
+     * positions past the end of a tab and tabs that are gone are deleted.
+     * Only run on the writer thread.
+     */
+    private void savePage(String username, String pagename,
+            HashMap<String, ArrayList<Integer>> jobMapIds, long timestamp) {
+        SQLiteStatement upsert = getUpsertPageStatement();
+        SQLiteStatement replace = getReplaceJobStatement();
+        database.beginTransaction();
+        try {
+            upsert.bindString(1, username);
+            upsert.bindString(2, pagename);
+            upsert.bindLong(3, timestamp);
+            upsert.execute();
+            HashMap<String, ArrayList<Integer>> saved = getSavedIds(username, pagename);
+
+            for (String tab : jobMapIds.keySet()) {
+                ArrayList<Integer> ids = jobMapIds.get(tab);
+                ArrayList<Integer> savedIds = saved.remove(tab);
+                int size = ids == null ? 0 : ids.size();
+                int savedSize = savedIds == null ? 0 : savedIds.size();
+
+                for (int i = 0; i < size; i++) {
+                    int id = ids.get(i);
+                    if (i < savedSize && savedIds.get(i) == id) {
+                        continue;
+                    }
+                    replace.bindString(1, username);
+                    replace.bindString(2, pagename);
+                    replace.bindString(3, tab);
+                    replace.bindLong(4, i);
+                    replace.bindLong(5, id);
+                    replace.execute();
+                }
+                if (savedSize > size) {
+                    database.delete(PageTable.TABLE_PAGE_JOB, PAGE_WHERE + " AND "
+                            + PageTable.COLUMN_TAB + "=? AND " + PageTable.COLUMN_POSITION + ">=?",
+                            new String[] {username, pagename, tab, size + ""});
+                }
+            }
 
-        updateElseInsert(PageTable.TABLE_PAGE, where, values);
+            // Tabs that are no longer in the page
+            for (String tab : saved.keySet()) {
+                database.delete(PageTable.TABLE_PAGE_JOB, PAGE_WHERE + " AND "
+                        + PageTable.COLUMN_TAB + "=?", new String[] {username, pagename, tab});
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+        cacheTimestamp(username, pagename, timestamp);
     }
 }
@@ -1,18 +1,41 @@
 package com.jobmineplus.mobile.database.pages;
 
+import java.io.File;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
 import android.util.Log;
 
+/**
+ * The pages are kept in the job database so the jobs of a page can be read
+ * with a join. Each page has a row in the page table and each of its jobs
+ * has a row in the page job table, with the tab it is in and its position
+ * in that tab. Pages with only one list use NO_TAB.
+ */
 public class PageTable {
     public static final String TAG = PageTable.class.getName();
     public static final String TABLE_PAGE = "page";
+    public static final String TABLE_PAGE_JOB = "page_job";
 
     public static final String COLUMN_ID = "_id";
     public static final String COLUMN_PAGENAME = "pagename";
     public static final String COLUMN_USERNAME = "username";
-    public static final String COLUMN_JOBLIST = "joblist";
     public static final String COLUMN_TIME = "timestamp";
 
+    // Page job columns, with the username and pagename
+    public static final String COLUMN_TAB = "tab";
+    public static final String COLUMN_POSITION = "position";
+    public static final String COLUMN_JOB_ID = "job_id";
+
+    public static final String NO_TAB = "";
+
+    // Before version 3 of the job database the pages had their own database
+    // and the jobs of a page were one string like "tab:1,2,3|tab:4,5"
+    private static final String LEGACY_DATABASE_NAME = "pagetable.db";
+    private static final String LEGACY_COLUMN_JOBLIST = "joblist";
 
     private static final String DATABASE_CREATE = "create table "
             + TABLE_PAGE
@@ -20,25 +43,140 @@ public class PageTable {
             + COLUMN_ID + " integer primary key autoincrement, "
             + COLUMN_PAGENAME + " text not null, "
             + COLUMN_USERNAME + " text not null, "
-            + COLUMN_JOBLIST + " text, "
             + COLUMN_TIME + " integer default 0 "
             + ");";
 
+    // Pages are always found by the user and name
+    private static final String INDEX_CREATE = "create unique index "
+            + TABLE_PAGE + "_" + COLUMN_USERNAME + "_" + COLUMN_PAGENAME + " on "
+            + TABLE_PAGE + "(" + COLUMN_USERNAME + ", " + COLUMN_PAGENAME + ");";
+
+    // The primary key is the index for reading a page in order
+    private static final String DATABASE_CREATE_PAGE_JOB = "create table "
+            + TABLE_PAGE_JOB
+            + "("
+            + COLUMN_USERNAME + " text not null, "
+            + COLUMN_PAGENAME + " text not null, "
+            + COLUMN_TAB + " text not null, "
+            + COLUMN_POSITION + " integer not null, "
+            + COLUMN_JOB_ID + " integer not null, "
+            + "primary key (" + COLUMN_USERNAME + ", " + COLUMN_PAGENAME + ", "
+                + COLUMN_TAB + ", " + COLUMN_POSITION + ")"
+            + ");";
+
     public static void onCreate(SQLiteDatabase database) {
         database.execSQL(DATABASE_CREATE);
+        database.execSQL(INDEX_CREATE);
+        database.execSQL(DATABASE_CREATE_PAGE_JOB);
     }
 
     public static void dropTable(SQLiteDatabase database) {
         database.execSQL("DROP TABLE IF EXISTS " + TABLE_PAGE);
+        database.execSQL("DROP TABLE IF EXISTS " + TABLE_PAGE_JOB);
     }
 
     public static void onUpgrade(SQLiteDatabase database, int oldVersion,
             int newVersion) {
-        Log.w(TAG, "Updating database from version" + oldVersion
-                + " to " + newVersion
-                + ", which will destroy all old data");
-        dropTable(database);
-        onCreate(database);
+        if (oldVersion < 3) {
+            Log.w(TAG, "Updating database from version " + oldVersion
+                    + " to " + newVersion + ", adding the pages");
+            onCreate(database);
+        } else if (oldVersion < 4) {
+            Log.w(TAG, "Updating database from version " + oldVersion
+                    + " to " + newVersion + ", indexing the pages");
+            addIndex(database);
+        }
+    }
+
+    /**
+     * Keeps the last saved row of each page so the unique index can be made
+     * @param database
+     */
+    private static void addIndex(SQLiteDatabase database) {
+        database.execSQL("DELETE FROM " + TABLE_PAGE + " WHERE " + COLUMN_ID + " NOT IN (SELECT MAX("
+                + COLUMN_ID + ") FROM " + TABLE_PAGE + " GROUP BY " + COLUMN_USERNAME + ", "
+                + COLUMN_PAGENAME + ")");
+        database.execSQL(INDEX_CREATE);
     }
 
+    /**
+     * Copies the pages from the old page database into the tables of the
+     * job database and deletes the old database. Like addIndex(), only the
+     * last saved row of each page is used. If it cannot be read the pages
+     * are just downloaded again.
+     * @param database
+     * @param context
+     */
+    public static void importLegacyPages(SQLiteDatabase database, Context context) {
+        File file = context.getDatabasePath(LEGACY_DATABASE_NAME);
+        if (file == null || !file.exists()) {
+            return;
+        }
+        SQLiteDatabase legacy = null;
+        Cursor cursor = null;
+        try {
+            legacy = SQLiteDatabase.openDatabase(file.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+            cursor = legacy.query(TABLE_PAGE, new String[] {COLUMN_USERNAME, COLUMN_PAGENAME,
+                    LEGACY_COLUMN_JOBLIST, COLUMN_TIME}, COLUMN_ID + " IN (SELECT MAX(" + COLUMN_ID
+                    + ") FROM " + TABLE_PAGE + " GROUP BY " + COLUMN_USERNAME + ", " + COLUMN_PAGENAME
+                    + ")", null, null, null, null);
+            while (cursor.moveToNext()) {
+                String username = cursor.getString(0);
+                String pagename = cursor.getString(1);
+                ContentValues values = new ContentValues();
+                values.put(COLUMN_USERNAME, username);
+                values.put(COLUMN_PAGENAME, pagename);
+                values.put(COLUMN_TIME, cursor.getLong(3));
+                database.insertWithOnConflict(TABLE_PAGE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+
+                // Replace the jobs of the page if it was already there
+                database.delete(TABLE_PAGE_JOB, COLUMN_USERNAME + " = ? AND " + COLUMN_PAGENAME + " = ?",
+                        new String[] {username, pagename});
+                importJobList(database, username, pagename, cursor.getString(2));
+            }
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            if (legacy != null) {
+                legacy.close();
+            }
+        }
+        context.deleteDatabase(LEGACY_DATABASE_NAME);
+    }
+
+    /**
+     * Reads "tab:1,2,3|tab:4,5", or "1,2,3" for pages with one list
+     */
+    private static void importJobList(SQLiteDatabase database, String username,
+            String pagename, String joblist) {
+        if (joblist == null || joblist.length() == 0) {
+            return;
+        }
+        for (String tabList : joblist.split("\\|")) {
+            String tab = NO_TAB;
+            int colonPos = tabList.indexOf(':');
+            if (colonPos != -1) {
+                tab = tabList.substring(0, colonPos);
+                tabList = tabList.substring(colonPos + 1);
+            }
+            int position = 0;
+            for (String id : tabList.split(",")) {
+                try {
+                    ContentValues values = new ContentValues();
+                    values.put(COLUMN_USERNAME, username);
+                    values.put(COLUMN_PAGENAME, pagename);
+                    values.put(COLUMN_TAB, tab);
+                    values.put(COLUMN_POSITION, position);
+                    values.put(COLUMN_JOB_ID, Integer.parseInt(id));
+                    database.insert(TABLE_PAGE_JOB, null, values);
+                    position++;
+                } catch (NumberFormatException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
 }
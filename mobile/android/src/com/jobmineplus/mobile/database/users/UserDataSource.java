@@ -1,6 +1,7 @@
 package com.jobmineplus.mobile.database.users;
 
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
 
 import android.content.ContentValues;
 import android.content.Context;
@@ -10,11 +11,9 @@ import android.util.Pair;
 import com.jobmineplus.mobile.database.DataSourceBase;
 
 public class UserDataSource extends DataSourceBase{
-    // Database fields
-    private UserDatabaseHelper dbHelper;
-
     public UserDataSource(Context context) {
-        dbHelper = new UserDatabaseHelper(context);
+        super(context);
+        database = engine.getUserDatabase();
     }
 
     //=========================
@@ -22,40 +21,44 @@ public class UserDataSource extends DataSourceBase{
     //=========================
     @Override
     public void open() {
-        database = dbHelper.getWritableDatabase();
+        database = engine.getUserDatabase();
     }
 
     @Override
     public void close() {
-        dbHelper.close();
+        // Nothing is kept, the shared database stays open
     }
 
     //=========================
     //  Insertions
     //=========================
-    public synchronized long putUser(String username, String password, Boolean isLastUser) {
+    public long putUser(String username, String password, Boolean isLastUser) {
         return internalPutUser(username, password, isLastUser);
     }
 
-    public synchronized long putUser(String username, String password) {
+    public long putUser(String username, String password) {
         return internalPutUser(username, password, false);
     }
 
-    public synchronized void clearLastUser() {
-        Cursor cursor = database.rawQuery(String.format("update %s set %s = null",
-                UserTable.TABLE_USER, UserTable.COLUMN_LAST_USER), null);
-        if (cursor != null) {
-            cursor.moveToFirst();
-        } else {
-            return;
-        }
-        cursor.close();
+    public void clearLastUser() {
+        engine.write(new Callable<Void>() {
+            @Override
+            public Void call() {
+                Cursor cursor = database.rawQuery(String.format("update %s set %s = null",
+                        UserTable.TABLE_USER, UserTable.COLUMN_LAST_USER), null);
+                if (cursor != null) {
+                    cursor.moveToFirst();
+                    cursor.close();
+                }
+                return null;
+            }
+        });
     }
 
     //=========================
     //  Accessors
     //=========================
-    public synchronized boolean checkCredentials (String username, String password) {
+    public boolean checkCredentials (String username, String password) {
         if (username == "" || password == "") {
             return false;
         }
@@ -77,7 +80,7 @@ public class UserDataSource extends DataSourceBase{
     }
 
     // TODO when implement logout, please mark the last user to false (0)
-    public synchronized Pair<String, String> getLastUser() {
+    public Pair<String, String> getLastUser() {
         Cursor cursor = database.rawQuery(String.format(
                 "select %s, %s from %s where %s='%s'",
                 UserTable.COLUMN_USERNAME, UserTable.COLUMN_PASSWORD, UserTable.TABLE_USER,
@@ -101,7 +104,7 @@ public class UserDataSource extends DataSourceBase{
     //=========================
 
     private long internalPutUser(String username, String password, Boolean isLastUser) {
-        ContentValues values = new ContentValues();
+        final ContentValues values = new ContentValues();
         addNonNullValue(values, UserTable.COLUMN_USERNAME, username);
         addNonNullValue(values, UserTable.COLUMN_PASSWORD, password);
 
@@ -110,9 +113,14 @@ public class UserDataSource extends DataSourceBase{
         }
 
         // Where statement
-        ArrayList<Pair<String, Object>> where = new ArrayList<Pair<String,Object>>();
+        final ArrayList<Pair<String, Object>> where = new ArrayList<Pair<String,Object>>();
         where.add(new Pair<String, Object>(UserTable.COLUMN_USERNAME, username));
 
-        return updateElseInsert(UserTable.TABLE_USER, where, values);
+        return engine.write(new Callable<Long>() {
+            @Override
+            public Long call() {
+                return updateElseInsert(UserTable.TABLE_USER, where, values);
+            }
+        });
     }
 }
@@ -2,11 +2,13 @@ package com.jobmineplus.mobile.debug;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 
 import com.actionbarsherlock.view.Menu;
 import com.actionbarsherlock.view.MenuItem;
 import com.jobmineplus.mobile.R;
 import com.jobmineplus.mobile.activities.HomeActivity;
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient;
 
 public final class DebugHomeActivity extends HomeActivity {
 
@@ -44,6 +46,10 @@ public final class DebugHomeActivity extends HomeActivity {
         if (item.getItemId() == R.id.menuitem_localhost) {
             debugLocalhost = !debugLocalhost;
             return true;
+        } else if (item.getItemId() == R.id.menuitem_metrics) {
+            Log.i("jbmnplsmbl", "Request metrics:\n" + JbmnplsHttpClient.getMetrics().dump());
+            toast("Request metrics written to the log");
+            return true;
         } else {
             return super.onOptionsItemSelected(item);
         }
@@ -0,0 +1,23 @@
+package com.jobmineplus.mobile.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request while JobMine looks like it is down.
+ */
+public class JbmnplsUnavailableException extends IOException {
+    private static final long serialVersionUID = 2841563079871214733L;
+    private final long retryDelay;
+
+    public JbmnplsUnavailableException(long retryDelay) {
+        super("JobMine is unavailable, try again in " + retryDelay + " ms");
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * @return milliseconds until the next request will be tried
+     */
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+}
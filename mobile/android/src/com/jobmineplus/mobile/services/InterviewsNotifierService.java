@@ -28,7 +28,6 @@ import com.jobmineplus.mobile.activities.jbmnpls.Applications;
 import com.jobmineplus.mobile.activities.jbmnpls.Interviews;
 import com.jobmineplus.mobile.database.jobs.JobDataSource;
 import com.jobmineplus.mobile.database.pages.PageDataSource;
-import com.jobmineplus.mobile.database.pages.PageMapResult;
 import com.jobmineplus.mobile.exceptions.JbmnplsException;
 import com.jobmineplus.mobile.exceptions.JbmnplsLoggedOutException;
 import com.jobmineplus.mobile.exceptions.JbmnplsParsingException;
@@ -36,10 +35,11 @@ import com.jobmineplus.mobile.widgets.JbmnplsHttpClient;
 import com.jobmineplus.mobile.widgets.Job;
 import com.jobmineplus.mobile.widgets.table.TableParser;
 import com.jobmineplus.mobile.widgets.table.TableParserOutline;
+import com.jobmineplus.mobile.widgets.table.TableRow;
 
 public class InterviewsNotifierService extends Service {
-    private final PageDataSource pageSource = new PageDataSource(this);
-    private final JobDataSource jobSource = new JobDataSource(this);
+    private PageDataSource pageSource;
+    private JobDataSource jobSource;
     private static final int CHECK_APPS_MAX_COUNT = 10;
     private JbmnplsHttpClient client;
     NotificationManager mNotificationManager;
@@ -59,6 +59,8 @@ public class InterviewsNotifierService extends Service {
         super.onCreate();
         mNotificationManager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
         client = new JbmnplsHttpClient();
+        pageSource = new PageDataSource(this);
+        jobSource = new JobDataSource(this);
     }
 
     @Override
@@ -145,7 +147,7 @@ public class InterviewsNotifierService extends Service {
     }
 
     private class GetInterviewsTask extends AsyncTask<Integer, Void, Boolean>
-        implements TableParser.OnTableParseListener {
+        implements TableParser.OnTableRowListener {
         private final TableParser parser = new TableParser();
         private ArrayList<Job> pulledJobs;
         private HashMap<String, ArrayList<Job>> pulledInterviewsJobs;
@@ -160,20 +162,18 @@ public class InterviewsNotifierService extends Service {
 
         public GetInterviewsTask(Context context) {
             ctx = context;
-            parser.setOnTableRowParse(this);
+            parser.setOnTableRowListener(this);
         }
 
         @Override
         protected Boolean doInBackground(Integer... params) {
-            if (!SimpleActivityBase.isJobmineOnline()) {
+            // Try again next time if JobMine is closed or was down recently
+            if (!SimpleActivityBase.isJobmineOnline() || !JbmnplsHttpClient.isJobmineAvailable()) {
                 return true;
             }
 
             nextTimeout = params[0];
 
-            pageSource.open();
-            jobSource.open();
-
             // Check connections
             ConnectivityManager connManager = (ConnectivityManager) getSystemService(CONNECTIVITY_SERVICE);
             NetworkInfo mWifi = connManager.getNetworkInfo(ConnectivityManager.TYPE_WIFI);
@@ -224,23 +224,21 @@ public class InterviewsNotifierService extends Service {
                 return NO_SCHEDULE;
             }
 
+            // The timestamp is cached so this does not read the database
             String username = client.getUsername();
-            PageMapResult result = pageSource.getPageDataMap(username, Applications.PAGE_NAME);
+            long timestamp = pageSource.getPageTimestamp(username, Applications.PAGE_NAME);
 
             // If no results, get them then
-            if (result == null) {
+            if (timestamp == 0) {
                 crawlApplications();
-                result = pageSource.getPageDataMap(username, Applications.PAGE_NAME);
-                if (result == null) {
+                timestamp = pageSource.getPageTimestamp(username, Applications.PAGE_NAME);
+                if (timestamp == 0) {
                     throw new JbmnplsException("Cannot grab any data from Applications.");
                 }
             }
 
-            // Get data from result
-            ArrayList<Integer> activeList = result.idMap.get(Applications.LISTS.ACTIVE_JOBS);
-            ArrayList<Integer> allList = result.idMap.get(Applications.LISTS.ALL_JOBS);
             long now = System.currentTimeMillis();
-            double secDiff = (now - result.timestamp) / 1000;
+            double secDiff = (now - timestamp) / 1000;
             Boolean needToGetApps = secDiff > CRAWL_APPLICATIONS_TIMEOUT;
 
             if (needToGetApps) {
@@ -248,6 +246,11 @@ public class InterviewsNotifierService extends Service {
                 return checkApplications(ranCount + 1);
             }
 
+            // Get the ids once they are up to date
+            HashMap<String, ArrayList<Integer>> idMap = pageSource.getJobsIdMap(username, Applications.PAGE_NAME);
+            ArrayList<Integer> activeList = idMap.get(Applications.LISTS.ACTIVE_JOBS);
+            ArrayList<Integer> allList = idMap.get(Applications.LISTS.ALL_JOBS);
+
             // When active is empty, we do not need to get interviews
             if (activeList == null) {
                 // Both lists are empty so we don't do anything or schedule anything
@@ -260,7 +263,7 @@ public class InterviewsNotifierService extends Service {
                 }
             } else {
                 // Check to see if you are employed by chacking the all list for employed
-                ArrayList<Job> jobs = jobSource.getJobsByIdList(allList);
+                ArrayList<Job> jobs = jobSource.getJobsByIdList(allList, JobDataSource.SUMMARY_COLUMNS);
                 for (Job j : jobs) {
                     if (j.getStatus() == Job.STATUS.EMPLOYED) {
                         // We are employed, no need to check interviews at all
@@ -279,10 +282,14 @@ public class InterviewsNotifierService extends Service {
             pulledAppsJobs.put(Applications.LISTS.ALL_JOBS, new ArrayList<Job>());
 
             // Pull data from the application webpage
-            String html = client.getJobmineHtml(JbmnplsHttpClient.GET_LINKS.APPLICATIONS);
-            if (html != null) {
-                parser.execute(Applications.ACTIVE_OUTLINES, html);
-                parser.execute(Applications.ALL_OUTLINE, html);
+            String html = client.getJobmineHtmlIfModified(JbmnplsHttpClient.GET_LINKS.APPLICATIONS);
+            if (html == JbmnplsHttpClient.NOT_MODIFIED) {
+                // Nothing changed, only remember that we checked
+                if (!pageSource.touchPage(client.getUsername(), Applications.PAGE_NAME, System.currentTimeMillis())) {
+                    client.forgetResponse(JbmnplsHttpClient.GET_LINKS.APPLICATIONS);
+                }
+            } else if (html != null) {
+                parser.executeAll(html, Applications.PAGE_OUTLINES);
 
                 // Put data into storage
                 jobSource.addJobs(pulledJobs);
@@ -301,7 +308,7 @@ public class InterviewsNotifierService extends Service {
            // Pull the interview data off the website
            String html;
            try {
-               html = client.getJobmineHtml(JbmnplsHttpClient.GET_LINKS.INTERVIEWS);
+               html = client.getJobmineHtmlIfModified(JbmnplsHttpClient.GET_LINKS.INTERVIEWS);
            } catch (JbmnplsLoggedOutException e) {
                e.printStackTrace();
                return false;
@@ -313,60 +320,71 @@ public class InterviewsNotifierService extends Service {
                return false;
            }
 
-           if (html == null) {
+           if (html == null || html == JbmnplsHttpClient.NOT_MODIFIED) {
                return true;
            }
 
-           // Parse the html into jobs (except the canncelled jobs)
+           // Read the page again next time if the new interviews were not
+           // saved or shown, otherwise it would be NOT_MODIFIED from now on
+           boolean handled = false;
            try {
-               parser.execute(Interviews.INTERVIEWS_OUTLINE, html);
-               parser.execute(Interviews.GROUPS_OUTLINE, html);
-               parser.execute(Interviews.SPECIAL_OUTLINE, html);
-           } catch (JbmnplsParsingException e) {
-               e.printStackTrace();
-               return false;
-           }
-
-           // Check to see if this is first time checking interviews on device
-           if (ids == null) {
-               // First time getting interviews, so we need to add it to the database
-               jobSource.addJobs(pulledJobs);
-               pageSource.addPage(client.getUsername(), Interviews.PAGE_NAME, pulledInterviewsJobs, System.currentTimeMillis());
-           } else {
-               // Parse out which are the new interviews
-               if (pulledJobs.isEmpty()) {
-                   return true;
+               // Parse the html into jobs (except the canncelled jobs)
+               try {
+                   parser.executeAll(html, Interviews.INTERVIEWS_OUTLINE, Interviews.GROUPS_OUTLINE,
+                           Interviews.SPECIAL_OUTLINE);
+               } catch (JbmnplsParsingException e) {
+                   e.printStackTrace();
+                   return false;
                }
 
-               // Parse the new interviews; remove all jobs that are already existing
-               int newCount = 0;
-               ArrayList<Integer> comingUpJobIds = ids.get(Interviews.TABS.COMING_UP);
-               ArrayList<Integer> finishedJobIds = ids.get(Interviews.TABS.FINISHED);
-               if (comingUpJobIds != null) {
-                   for (int i = 0; i < pulledJobs.size(); i++) {
-                       if (!comingUpJobIds.contains(pulledJobs.get(i).getId())) {
-                           newCount++;
+               // Check to see if this is first time checking interviews on device
+               if (ids == null) {
+                   // First time getting interviews, so we need to add it to the database
+                   jobSource.addJobs(pulledJobs);
+                   pageSource.addPage(client.getUsername(), Interviews.PAGE_NAME, pulledInterviewsJobs, System.currentTimeMillis());
+               } else {
+                   // Parse out which are the new interviews
+                   if (pulledJobs.isEmpty()) {
+                       handled = true;
+                       return true;
+                   }
+
+                   // Parse the new interviews; remove all jobs that are already existing
+                   int newCount = 0;
+                   ArrayList<Integer> comingUpJobIds = ids.get(Interviews.TABS.COMING_UP);
+                   ArrayList<Integer> finishedJobIds = ids.get(Interviews.TABS.FINISHED);
+                   if (comingUpJobIds != null) {
+                       for (int i = 0; i < pulledJobs.size(); i++) {
+                           if (!comingUpJobIds.contains(pulledJobs.get(i).getId())) {
+                               newCount++;
+                           }
                        }
                    }
-               }
-               if (finishedJobIds != null) {
-                   for (int i = 0; i < pulledJobs.size(); i++) {
-                       if (!finishedJobIds.contains(pulledJobs.get(i).getId())) {
-                           newCount++;
+                   if (finishedJobIds != null) {
+                       for (int i = 0; i < pulledJobs.size(); i++) {
+                           if (!finishedJobIds.contains(pulledJobs.get(i).getId())) {
+                               newCount++;
+                           }
                        }
                    }
-               }
 
-               // No new jobs
-               if (newCount == 0) {
-                   return true;
-               }
+                   // No new jobs
+                   if (newCount == 0) {
+                       handled = true;
+                       return true;
+                   }
 
-               String message = newCount + " new interview"
-                       + (newCount==1?"":"s");
-               showNotification("Jobmine Plus", message);
+                   String message = newCount + " new interview"
+                           + (newCount==1?"":"s");
+                   showNotification("Jobmine Plus", message);
+               }
+               handled = true;
+               return true;
+           } finally {
+               if (!handled) {
+                   client.forgetResponse(JbmnplsHttpClient.GET_LINKS.INTERVIEWS);
+               }
            }
-           return true;
        }
 
         @Override
@@ -380,17 +398,18 @@ public class InterviewsNotifierService extends Service {
         }
 
         @Override
-        public void onRowParse(TableParserOutline outline, Object... jobData) {
+        public void onRowParse(TableRow row) {
+            TableParserOutline outline = row.getOutline();
             Job job;
             if (outline == Applications.ALL_OUTLINE) {
-                job = Applications.parseRowTableOutline(outline, jobData);
+                job = Applications.parseRowTableOutline(row);
                 pulledAppsJobs.get(Applications.LISTS.ALL_JOBS).add(job);
             } else if (outline == Applications.ACTIVE_OUTLINES[0] || outline == Applications.ACTIVE_OUTLINES[1]
                     || outline == Applications.ACTIVE_OUTLINES[2]) {
-                job = Applications.parseRowTableOutline(outline, jobData);
+                job = Applications.parseRowTableOutline(row);
                 pulledAppsJobs.get(Applications.LISTS.ACTIVE_JOBS).add(job);
             } else {
-                job = Interviews.parseRowTableOutline(outline, jobData);
+                job = Interviews.parseRowTableOutline(row);
                 if (job.pastNow()) {
                     pulledInterviewsJobs.get(Interviews.TABS.FINISHED).add(job);
                 } else {
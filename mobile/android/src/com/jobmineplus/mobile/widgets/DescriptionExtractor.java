@@ -0,0 +1,214 @@
+package com.jobmineplus.mobile.widgets;
+
+import java.util.Arrays;
+
+import com.jobmineplus.mobile.exceptions.JbmnplsParsingException;
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient.BoundedHtmlListener;
+import com.jobmineplus.mobile.widgets.Job.LEVEL;
+import com.jobmineplus.mobile.widgets.table.SimpleHtmlParser;
+
+/**
+ * Fills in a job from its description page while the page is downloaded.
+ * The details are the spans after "ACE_width", each one is read as soon as
+ * it is complete and then thrown away, so the page is never kept. Once the
+ * last span (the description itself) is read the rest of the page is not
+ * downloaded.
+ * Pass this to JbmnplsHttpClient.getJobmineHtml(url, listener) and call
+ * finish() after.
+ */
+final class DescriptionExtractor implements BoundedHtmlListener {
+    private static final String TAG = "span";
+    private static final String TAG_OPEN = "<" + TAG;
+    private static final String TAG_CLOSE = "</" + TAG + ">";
+    private static final String[] START_IDS = {"id='ACE_width'", "id=\"ACE_width\""};
+    private static final String REQUIRED_TEXT = "Required";
+
+    private static enum FIELD {
+        NONE, OPENING_DATE, LAST_DATE, EMPLOYER, TITLE, GRADES, LOCATION, OPENINGS,
+        DISCIPLINES, MORE_DISCIPLINES, LEVELS, HIRING_SUPPORT, WORK_SUPPORT,
+        WARNING, DESCRIPTION
+    }
+
+    // The field each span of the page has
+    private static final FIELD[] FIELDS = new FIELD[32];
+    static {
+        Arrays.fill(FIELDS, FIELD.NONE);
+        FIELDS[3] = FIELD.OPENING_DATE;
+        FIELDS[4] = FIELD.LAST_DATE;
+        FIELDS[10] = FIELD.EMPLOYER;
+        FIELDS[12] = FIELD.TITLE;
+        FIELDS[14] = FIELD.GRADES;
+        FIELDS[16] = FIELD.LOCATION;
+        FIELDS[18] = FIELD.OPENINGS;
+        FIELDS[20] = FIELD.DISCIPLINES;
+        FIELDS[21] = FIELD.MORE_DISCIPLINES;
+        FIELDS[23] = FIELD.LEVELS;
+        FIELDS[26] = FIELD.HIRING_SUPPORT;
+        FIELDS[27] = FIELD.WORK_SUPPORT;
+        FIELDS[29] = FIELD.WARNING;
+        FIELDS[31] = FIELD.DESCRIPTION;
+    }
+
+    private final Job job;
+    private final StringBuilder html = new StringBuilder();
+    private boolean hasStarted = false;
+    private int span = 0;
+    private int closeFrom = 0;
+    private String disciplines = "";
+
+    //===============
+    //  Constructor
+    //===============
+    public DescriptionExtractor(Job job) {
+        this.job = job;
+    }
+
+    //==================
+    //  Public Methods
+    //==================
+    @Override
+    public void onHtmlRead(char[] buffer, int offset, int length) {
+        if (isDone()) {
+            return;
+        }
+        html.append(buffer, offset, length);
+        if (!hasStarted && !findStart()) {
+            return;
+        }
+        readSpans();
+    }
+
+    @Override
+    public boolean isDone() {
+        return span == FIELDS.length;
+    }
+
+    /**
+     * Call this after the html is read. Throws if the page ended before all
+     * the details were found.
+     */
+    public void finish() {
+        html.setLength(0);
+        if (!hasStarted) {
+            throw new JbmnplsParsingException("Cannot find id in html.");
+        }
+        if (!isDone()) {
+            throw new JbmnplsParsingException("Cannot find " + TAG + " in html.");
+        }
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    /**
+     * Throws away the html before "ACE_width", keeps the end in case the id is
+     * split between two chunks.
+     * @return true if found
+     */
+    private boolean findStart() {
+        for (String id : START_IDS) {
+            int index = html.indexOf(id);
+            if (index != -1) {
+                html.delete(0, index + id.length());
+                hasStarted = true;
+                return true;
+            }
+        }
+        html.delete(0, Math.max(0, html.length() - START_IDS[0].length() + 1));
+        return false;
+    }
+
+    /**
+     * Reads each span that was completely downloaded, same as
+     * SimpleHtmlParser.getTextInNextElement or skipTag over the whole page.
+     */
+    private void readSpans() {
+        while (!isDone()) {
+            int open = html.indexOf(TAG_OPEN);
+            if (open == -1) {
+                html.delete(0, Math.max(0, html.length() - TAG_OPEN.length() + 1));
+                return;
+            }
+            html.delete(0, open);
+            int close = html.indexOf(TAG_CLOSE, Math.max(closeFrom, TAG_OPEN.length()));
+            if (close == -1) {
+                closeFrom = Math.max(0, html.length() - TAG_CLOSE.length() + 1);
+                return;
+            }
+            close += TAG_CLOSE.length();
+
+            FIELD field = FIELDS[span];
+            if (field != FIELD.NONE) {
+                // The warning and description are shown as html so keep their entities
+                SimpleHtmlParser parser = new SimpleHtmlParser(html.substring(0, close));
+                setField(field, field == FIELD.WARNING || field == FIELD.DESCRIPTION
+                        ? parser.getHtmlInNextElement(TAG) : parser.getTextInNextElement(TAG));
+            }
+            html.delete(0, close);
+            closeFrom = 0;
+            span++;
+        }
+        html.setLength(0);
+        html.trimToSize();
+    }
+
+    private void setField(FIELD field, String text) {
+        switch (field) {
+        case OPENING_DATE:
+            job.setOpeningDateToApply(job.parseDate(text));
+            break;
+        case LAST_DATE:
+            job.setLastDateToApply(job.parseDate(text));
+            break;
+        case EMPLOYER:
+            job.setEmployerFullName(text);
+            break;
+        case TITLE:
+            job.setTitle(text);
+            break;
+        case GRADES:
+            job.setGradesRequired(text.equals(REQUIRED_TEXT));
+            break;
+        case LOCATION:
+            job.setLocation(text);
+            break;
+        case OPENINGS:
+            job.setNumberOfOpenings(text.length() == 0 ? 0 : Integer.parseInt(text));
+            break;
+        case DISCIPLINES:
+            disciplines = text;
+            break;
+        case MORE_DISCIPLINES:
+            if (text.length() != 0) {
+                disciplines += "," + text;
+            }
+            job.setDisciplines(disciplines.split(","));
+            break;
+        case LEVELS:
+            String[] thing = text.split(",");
+            LEVEL[] l = new LEVEL[thing.length];
+            for (int j = 0; j < thing.length; j++) {
+                String tempStr = thing[j].trim();
+                if (tempStr.length() != 0) {
+                    l[j] = LEVEL.getLevelfromString(tempStr);
+                }
+            }
+            job.setLevels(l);
+            break;
+        case HIRING_SUPPORT:
+            job.setHiringSupport(text);
+            break;
+        case WORK_SUPPORT:
+            job.setWorkSupport(text);
+            break;
+        case WARNING:
+            job.setDescriptionWarning(text);
+            break;
+        case DESCRIPTION:
+            job.setDescription(text.replace("<br />", "\n"));
+            break;
+        default:
+            break;
+        }
+    }
+}
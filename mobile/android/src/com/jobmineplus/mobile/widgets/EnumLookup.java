@@ -0,0 +1,122 @@
+package com.jobmineplus.mobile.widgets;
+
+/**
+ * Finds the enum value whose toString() matches some text, ignoring case
+ * like equalsIgnoreCase. Every name is put in its own slot of a small table
+ * when this is built (a perfect hash), so a lookup is one hash of the text
+ * and one comparison, and works on any CharSequence without making a String.
+ * Also turns ordinals stored in the database back into values without
+ * calling values() each time.
+ * Build one for each enum and keep it static.
+ */
+public final class EnumLookup<E extends Enum<E>> {
+    private static final int MAX_SIZE = 1 << 12;
+    private static final int MAX_SEEDS = 64;
+
+    private final E[] values;
+    private final Object[] slots;
+    private final int mask;
+    private final int multiplier;
+
+    //===============
+    //  Constructor
+    //===============
+    public EnumLookup(E[] values) {
+        this.values = values;
+
+        // Find a table size and hash where no names share a slot
+        int size = Integer.highestOneBit(Math.max(1, values.length * 2 - 1)) << 1;
+        for (; size <= MAX_SIZE; size <<= 1) {
+            for (int seed = 0; seed < MAX_SEEDS; seed++) {
+                int multiplier = 31 + seed * 2;
+                Object[] slots = fill(values, size - 1, multiplier);
+                if (slots != null) {
+                    this.slots = slots;
+                    this.mask = size - 1;
+                    this.multiplier = multiplier;
+                    return;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Cannot build a lookup table, the names of "
+                + values[0].getClass().getSimpleName() + " are not unique.");
+    }
+
+    //==================
+    //  Public Methods
+    //==================
+    /**
+     * @param text
+     * @return the value with that name (ignoring case) or null if none
+     */
+    public E get(CharSequence text) {
+        return get(text, 0, text.length());
+    }
+
+    /**
+     * Same as get(text) but only reads the text between start and end
+     * @param text
+     * @param start
+     * @param end
+     * @return the value with that name (ignoring case) or null if none
+     */
+    @SuppressWarnings("unchecked")
+    public E get(CharSequence text, int start, int end) {
+        E value = (E) slots[hash(text, start, end, multiplier) & mask];
+        if (value == null) {
+            return null;
+        }
+        String name = value.toString();
+        if (name.length() != end - start) {
+            return null;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (fold(name.charAt(i)) != fold(text.charAt(start + i))) {
+                return null;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @param ordinal
+     * @return the value with that ordinal or null if out of range
+     */
+    public E fromOrdinal(int ordinal) {
+        return ordinal < 0 || ordinal >= values.length ? null : values[ordinal];
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    private static Object[] fill(Enum<?>[] values, int mask, int multiplier) {
+        Object[] slots = new Object[mask + 1];
+        for (Enum<?> value : values) {
+            String name = value.toString();
+            int slot = hash(name, 0, name.length(), multiplier) & mask;
+            if (slots[slot] != null) {
+                return null;
+            }
+            slots[slot] = value;
+        }
+        return slots;
+    }
+
+    private static int hash(CharSequence text, int start, int end, int multiplier) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = h * multiplier + fold(text.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Two characters that are equal ignoring case fold to the same one
+     */
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
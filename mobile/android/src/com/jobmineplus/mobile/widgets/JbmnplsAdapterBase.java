@@ -18,8 +18,6 @@ public abstract class JbmnplsAdapterBase extends ViewAdapterBase<Job> {
     private View[] currentElements;
     private View currentLayout;
 
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("MMM d, yyyy", Locale.getDefault());
-
     public static enum HIGHLIGHTING{
         GREAT, NORMAL, BAD, WORSE
     }
@@ -90,10 +88,7 @@ public abstract class JbmnplsAdapterBase extends ViewAdapterBase<Job> {
             hide(index);
             return;
         }
-        if (format == null) {
-            format = DATE_FORMAT;
-        }
-        String dateStr = format.format(date);
+        String dateStr = format == null ? JobmineDate.format(date) : format.format(date);
         if (prefix != null && prefix != "") {
             setText(index, prefix.trim() + " " + dateStr);
         } else {
@@ -119,10 +114,8 @@ public abstract class JbmnplsAdapterBase extends ViewAdapterBase<Job> {
             hide(index);
             return;
         }
-        if (format == null) {
-            format = DATE_FORMAT;
-        }
-        String dateStr = format.format(from) + " - " + format.format(to);
+        String dateStr = format == null ? JobmineDate.format(from) + " - " + JobmineDate.format(to)
+                : format.format(from) + " - " + format.format(to);
         if (prefix != null && prefix != "") {
             setText(index, prefix.trim() + " " + dateStr);
         } else {
@@ -280,13 +273,11 @@ public abstract class JbmnplsAdapterBase extends ViewAdapterBase<Job> {
         public static void setDate(TextView view, Date date, String prefix, SimpleDateFormat format) {
             String text = null;
             if (date != null) {
-                if (format == null) {
-                    format = DATE_FORMAT;
-                }
+                String dateStr = format == null ? JobmineDate.format(date) : format.format(date);
                 if (prefix != null && !TextUtils.isEmpty(prefix)) {
-                    text = prefix.trim() + " " + format.format(date);
+                    text = prefix.trim() + " " + dateStr;
                 } else {
-                    text = format.format(date);
+                    text = dateStr;
                 }
                 setText(view, text, false);
             } else {
@@ -305,10 +296,8 @@ public abstract class JbmnplsAdapterBase extends ViewAdapterBase<Job> {
         public static void setDate(TextView view, Date from, Date to, String prefix, SimpleDateFormat format) {
             String text = null;
             if (from != null && to != null) {
-                if (format == null) {
-                    format = DATE_FORMAT;
-                }
-                String dateStr = format.format(from) + " - " + format.format(to);
+                String dateStr = format == null ? JobmineDate.format(from) + " - " + JobmineDate.format(to)
+                        : format.format(from) + " - " + format.format(to);
                 if (prefix != null && !TextUtils.isEmpty(prefix)) {
                     text = prefix.trim() + " " + dateStr;
                 } else {
@@ -1,22 +1,38 @@
 
 package com.jobmineplus.mobile.widgets;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Field;
 import java.security.KeyStore;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.HttpVersion;
 import org.apache.http.NameValuePair;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
 import org.apache.http.conn.scheme.PlainSocketFactory;
 import org.apache.http.conn.scheme.Scheme;
 import org.apache.http.conn.scheme.SchemeRegistry;
@@ -32,6 +48,16 @@ import android.util.Log;
 
 import com.jobmineplus.mobile.R;
 import com.jobmineplus.mobile.exceptions.JbmnplsLoggedOutException;
+import com.jobmineplus.mobile.exceptions.JbmnplsUnavailableException;
+import com.jobmineplus.mobile.widgets.http.ApacheTransport;
+import com.jobmineplus.mobile.widgets.http.BufferPool;
+import com.jobmineplus.mobile.widgets.http.CircuitBreaker;
+import com.jobmineplus.mobile.widgets.http.CircuitBreakerTransport;
+import com.jobmineplus.mobile.widgets.http.DecompressingEntity;
+import com.jobmineplus.mobile.widgets.http.HttpTransport;
+import com.jobmineplus.mobile.widgets.http.MarkerScanner;
+import com.jobmineplus.mobile.widgets.http.RequestMetrics;
+import com.jobmineplus.mobile.widgets.http.ResponseCache;
 import com.jobmineplus.mobile.widgets.ssl.AdditionalKeyStoresSSLSocketFactory;
 
 public final class JbmnplsHttpClient {
@@ -61,39 +87,146 @@ public final class JbmnplsHttpClient {
     //===========================
     static public enum LOGGED { IN, OUT, OFFLINE }
 
+    //=====================
+    //  Response results
+    //=====================
+    static public enum RESPONSE { FAILED, READ, NOT_MODIFIED }
+
 
     //=============
     //  Constants
     //=============
     private static final int AUTO_LOGOUT_TIME           = 1000 * 60 * 20;   //20 min
-    private static final int BUFFER_READER_SIZE         = 1024;
+    private static final int BUFFER_READER_SIZE         = 1024 * 8;    // Same as InputStreamReader
+
+    // Number of stateless GET requests that can run at the same time
+    public static final int MAX_PARALLEL_REQUESTS       = 4;
+    private static final int MAX_CONNECTIONS            = MAX_PARALLEL_REQUESTS + 2;
 
     // Login constants
     private static final String LOGIN_UNIQUE_STRING     = "Signin HTML for JobMine.";
     private static final String LOGIN_OFFLINE_MESSAGE  = "Invalid signon time for user";
     private static final String DEFAULT_HTML_ENCODER    = "UTF-8";
     private static final String FAILED_URL              = "Invalid URL - no Node found in";
-    private static final int    LOGIN_READ_LENGTH       = 400;
-    private static final int    LOGIN_ERROR_MSG_SKIP    = 3200;
+    private static final int    LOGIN_CHECK_LENGTH      = 400;    // Sign in markers are at the start
     private static final int    MAX_LOGIN_ATTEMPTS = 3;
+    private static final String KEEP_ALIVE_URL      = GET_LINKS.DOCUMENTS;
+
+    // Every response is scanned for these while it is read
+    private static final MarkerScanner LOGIN_MARKERS = new MarkerScanner(
+            LOGIN_UNIQUE_STRING, LOGIN_OFFLINE_MESSAGE, FAILED_URL);
+    private static final int MARKER_LOGIN_PAGE  = 0;
+    private static final int MARKER_OFFLINE     = 1;
+    private static final int MARKER_FAILED_URL  = 2;
+
+    // Returned by getJobmineHtmlIfModified when the page is the same as the
+    // last time it was read. Compare by reference, it is never real html.
+    public static final String NOT_MODIFIED = new String("");
 
 
     //=====================
     //  Private Variables
     //=====================
-    private final Object requestLock = new Object();
+    private final Semaphore getLane = new Semaphore(MAX_PARALLEL_REQUESTS, true);
+    private final Lane postLane = new Lane();
+    private final Object loginLock = new Object();
     private final Object timeStampLock = new Object();
-    HttpClient client = new DefaultHttpClient();
+    private final HttpTransport.Factory transportFactory;
+    private volatile HttpTransport transport;
     private long loginTimeStamp = 0;
+    private volatile int loginCount = 0;
     private String username = "";
     private String password = "";
-    private HttpRequestBase currentRequest;
-    private boolean canAbort = true;
-    private boolean pendingAbort = false;
+    private final Set<HttpRequestBase> currentRequests =
+            Collections.synchronizedSet(new HashSet<HttpRequestBase>());
+    private final AtomicInteger abortCount = new AtomicInteger();
+    private final ThreadLocal<AbortState> abortStates = new ThreadLocal<AbortState>() {
+        @Override
+        protected AbortState initialValue() {
+            return new AbortState();
+        }
+    };
+
+    // Requests hold the read lock while they use the transport, logging in
+    // holds the write lock so the transport is not replaced under them
+    private final ReentrantReadWriteLock sessionLock = new ReentrantReadWriteLock(true);
+    private final ResponseCache responseCache = new ResponseCache();
+    private static final BufferPool bufferPool = new BufferPool(BUFFER_READER_SIZE, MAX_CONNECTIONS);
+
+    // Shared by every client so the numbers survive logging out
+    private static final RequestMetrics metrics = new RequestMetrics();
+
+    // Shared by the app and the notifier service so both back off together
+    private static final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private static final HashMap<String, String> endpointNames = new HashMap<String, String>();
+    static {
+        // Name the endpoints after their link constants
+        for (Class<?> links : new Class<?>[]{GET_LINKS.class, POST_LINKS.class}) {
+            for (Field field : links.getFields()) {
+                try {
+                    endpointNames.put((String) field.get(null), field.getName());
+                } catch (IllegalAccessException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+    private final SessionKeepAlive keepAlive = new SessionKeepAlive(this, AUTO_LOGOUT_TIME);
+
+    // Logins and wasted requests that were avoided by keeping the session alive
+    private final AtomicInteger loginsSaved = new AtomicInteger();
+    private final AtomicInteger retriesSaved = new AtomicInteger();
+
+    // Average length of the pages read, to size the html before reading it
+    private volatile int expectedHtmlLength = 0;
 
     private static KeyStore sTrustedStore = null;
     private static final Object sTrustedLock = new Object();
 
+    private static final ExecutorService sRequestPool = Executors.newFixedThreadPool(
+            MAX_PARALLEL_REQUESTS, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "JbmnplsRequest #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    //=========
+    //  Lanes
+    //=========
+    /**
+     * POST requests in the same lane run one at a time in the order they
+     * were made. JobMine counts each POST with ICStateNum so a sequence of
+     * them must stay in its own lane. GET requests do not need a lane and
+     * run in parallel up to MAX_PARALLEL_REQUESTS.
+     */
+    public static final class Lane {
+        private final ReentrantLock lock = new ReentrantLock(true);
+    }
+
+    /**
+     * The abort state of the request running on a thread. The requests it
+     * sends to log in again belong to it, so they are aborted with it.
+     */
+    private static final class AbortState {
+        private boolean canAbort = true;
+        private int aborts;     // abortCount when the request started
+        private int depth = 0;
+    }
+
+    /**
+     * Executor with MAX_PARALLEL_REQUESTS threads to run page requests on so
+     * independent pages do not wait behind each other.
+     * @return the executor
+     */
+    public static ExecutorService getRequestExecutor() {
+        return sRequestPool;
+    }
+
     //=========================
     //  Static Initialization
     //=========================
@@ -122,12 +255,29 @@ public final class JbmnplsHttpClient {
     //  Constructor
     //=========================
     public JbmnplsHttpClient() {
-        reset();
+        this("", "", null);
     }
 
     public JbmnplsHttpClient(String user, String pass) {
+        this(user, pass, null);
+    }
+
+    /**
+     * Sends the requests through the transports made by the factory instead
+     * of to JobMine, eg. a FixtureTransport to run without a network.
+     * @param user
+     * @param pass
+     * @param factory null to use JobMine
+     */
+    public JbmnplsHttpClient(String user, String pass, HttpTransport.Factory factory) {
         username = user;
         password = pass;
+        transportFactory = factory != null ? factory : new HttpTransport.Factory() {
+            @Override
+            public HttpTransport create() {
+                return createJobmineTransport();
+            }
+        };
         reset();
     }
 
@@ -188,6 +338,24 @@ public final class JbmnplsHttpClient {
     }
 
     public LOGGED login(String user, String pass) {
+        synchronized (loginLock) {
+            return internalLogin(user, pass);
+        }
+    }
+
+    private LOGGED internalLogin(String user, String pass) {
+        // Wait for the requests that are using the transport before replacing it
+        sessionLock.writeLock().lock();
+        startRequest();
+        try {
+            return sendLogin(user, pass);
+        } finally {
+            endRequest();
+            sessionLock.writeLock().unlock();
+        }
+    }
+
+    private LOGGED sendLogin(String user, String pass) {
         reset();
         if (user.length() == 0 || pass.length() == 0) {
             Log.i("jbmnplsmbl", "Logged out no pass and user");
@@ -201,17 +369,22 @@ public final class JbmnplsHttpClient {
         nameValuePairs.add(new BasicNameValuePair("pwd", pass));
         nameValuePairs.add(new BasicNameValuePair("userid", user));
 
-        BufferedReader reader = null;
+        Reader reader = null;
+        HttpPost request = new HttpPost(JbmnplsHttpClient.POST_LINKS.LOGIN);
+        RequestMetrics.Sample sample = metrics.get(getEndpointName(POST_LINKS.LOGIN, null)).start();
         try {
             StopWatch s = new StopWatch(true);
-            HttpResponse response = internalPost(nameValuePairs, JbmnplsHttpClient.POST_LINKS.LOGIN);
+            HttpResponse response = internalPost(request, nameValuePairs);
             s.printElapsed("%s ms login post");
             if (response == null || response.getStatusLine().getStatusCode() != 200) {
+                sample.fail(isAbortPending());
                 return LOGGED.OUT;
             }
+            sample.onFirstByte();
 
             reader = getReaderFromResponse(response);
-            LOGGED result = validateLoginJobmine(reader);
+            LOGGED result = readJobmineHtml(reader, null, response.getEntity(), sample);
+            sample.finish();
             if (result != LOGGED.IN) {
                 return result;
             }
@@ -219,11 +392,14 @@ public final class JbmnplsHttpClient {
             // Successful login
             setLoginCredentials(user, pass);
             updateTimestamp();
+            loginCount++;
             return LOGGED.IN;
         } catch (IOException e) {
             e.printStackTrace();
+            sample.fail(isAbortPending());
             return LOGGED.OFFLINE;
         } finally {
+            done(request);
             try {
                 if (reader != null) {
                     reader.close();
@@ -231,16 +407,129 @@ public final class JbmnplsHttpClient {
             } catch(IOException e) {
                 e.printStackTrace();
                 return LOGGED.OUT;
-            } finally {
-                if (canAbort && pendingAbort) {
-                    pendingAbort = false;
+            }
+        }
+    }
+
+    /**
+     * Requests running in parallel can all find out they were logged out at
+     * the same time. Only the first one logs in again, the rest use that
+     * session.
+     * @param session the login count when the request was sent
+     * @return the login state
+     */
+    private LOGGED relogin(int session) {
+        synchronized (loginLock) {
+            if (session != loginCount && isLoggedIn()) {
+                return LOGGED.IN;
+            }
+            return internalLogin(username, password);
+        }
+    }
+
+    //======================
+    //  Session Keep Alive
+    //======================
+    /**
+     * Start refreshing the session before it times out, call this when the
+     * app is being used.
+     */
+    public void startKeepAlive() {
+        keepAlive.start();
+    }
+
+    public void stopKeepAlive() {
+        keepAlive.stop();
+    }
+
+    /**
+     * @return number of times the session was kept alive instead of timing
+     * out and needing to log in again
+     */
+    public int getLoginsSaved() {
+        return loginsSaved.get();
+    }
+
+    /**
+     * @return number of requests that logged in before being sent instead of
+     * being sent twice because the session had timed out
+     */
+    public int getRetriesSaved() {
+        return retriesSaved.get();
+    }
+
+    long getSessionAge() {
+        synchronized(timeStampLock) {
+            return System.currentTimeMillis() - loginTimeStamp;
+        }
+    }
+
+    /**
+     * Sends a request to JobMine to reset its session timer. If JobMine
+     * already logged us out, it will login again.
+     * @return true if the session is alive
+     */
+    boolean refreshSession() {
+        getLane.acquireUninterruptibly();
+        startRequest();
+        try {
+            int session = loginCount;
+            LOGGED result;
+            HttpGet request = new HttpGet(KEEP_ALIVE_URL);
+            sessionLock.readLock().lock();
+            try {
+                HttpResponse response = internalGet(request, null);
+                if (response == null) {
+                    return false;
                 }
+                result = readResponse(request, response, null, null);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            } finally {
+                done(request);
+                sessionLock.readLock().unlock();
+            }
+            if (result == LOGGED.IN) {
+                updateTimestamp();
+                loginsSaved.incrementAndGet();
+                return true;
+            } else if (result == LOGGED.OUT) {
+                return relogin(session) == LOGGED.IN;
+            }
+            return false;
+        } finally {
+            endRequest();
+            getLane.release();
+        }
+    }
+
+    /**
+     * If we know the session has timed out, login before sending the request
+     * instead of getting the sign in page back and sending it again.
+     */
+    private void renewExpiredSession() {
+        if (username.length() == 0 || isLoggedIn()) {
+            return;
+        }
+        synchronized(timeStampLock) {
+            if (loginTimeStamp == 0) {     // Never logged in or logged out
+                return;
             }
         }
+        if (relogin(loginCount) == LOGGED.IN) {
+            retriesSaved.incrementAndGet();
+        }
     }
 
     public void logout() {
-        client = new DefaultHttpClient();
+        stopKeepAlive();
+        sessionLock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            sessionLock.writeLock().unlock();
+        }
         synchronized (timeStampLock) {
             loginTimeStamp = 0;
         }
@@ -249,24 +538,37 @@ public final class JbmnplsHttpClient {
     //=====================
     //  GET HTTP Requests
     //=====================
-    public HttpResponse get(String url) {
-        HttpResponse result = internalGet(url);
-        if (canAbort && pendingAbort) {
-            pendingAbort = false;
+    public HttpResponse get(String url) throws JbmnplsUnavailableException {
+        HttpGet request = new HttpGet(url);
+        sessionLock.readLock().lock();
+        startRequest();
+        try {
+            return internalGet(request, null);
+        } finally {
+            endRequest();
+            done(request);
+            sessionLock.readLock().unlock();
         }
-        return result;
     }
 
-    private HttpResponse internalGet(String url) {
+    private HttpResponse internalGet(HttpGet request, ResponseCache.Entry cached) throws JbmnplsUnavailableException {
         HttpResponse response = null;
         try {
-            if (pendingAbort && canAbort) {
-                return null;
+            if (cached != null) {
+                // Let the server tell us if nothing changed
+                if (cached.etag != null) {
+                    request.addHeader("If-None-Match", cached.etag);
+                }
+                if (cached.lastModified != null) {
+                    request.addHeader("If-Modified-Since", cached.lastModified);
+                }
             }
-            HttpGet request = new HttpGet(url);
             StopWatch s = new StopWatch(true);
-            response = client.execute(request);
+            response = send(request);
             s.printElapsed("%s ms to get");
+        } catch (JbmnplsUnavailableException e) {
+            // Not sent because JobMine is down, not a failed request
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -275,36 +577,122 @@ public final class JbmnplsHttpClient {
     }
 
     public String getJobmineHtml (String url) throws JbmnplsLoggedOutException, IOException{
-        synchronized (requestLock) {
-            InputStream in = null;
-            BufferedReader reader = null;
+        HtmlStringBuilder str = new HtmlStringBuilder();
+        if (!getJobmineHtml(url, str)) {
+            return null;
+        }
+        return str.toString();
+    }
+
+    /**
+     * Same as getJobmineHtml(url) but instead of building the whole page as a
+     * String, the body is handed to the listener in chunks as it is read off
+     * the network. Line breaks are removed just like the String version.
+     * @param url
+     * @param listener receives each chunk of html
+     * @return false if there was no response, true when the page was read
+     * @throws JbmnplsLoggedOutException
+     * @throws IOException
+     */
+    public boolean getJobmineHtml (String url, OnHtmlReadListener listener) throws JbmnplsLoggedOutException, IOException{
+        return internalGetJobmineHtml(url, listener, false) != RESPONSE.FAILED;
+    }
+
+    /**
+     * Gets the html like getJobmineHtml(url) but if the page is the same as the
+     * last time it was read with this method (for this user), NOT_MODIFIED is
+     * returned instead so the caller can skip parsing and saving it again.
+     * @param url
+     * @return html, NOT_MODIFIED or null if failed
+     * @throws JbmnplsLoggedOutException
+     * @throws IOException
+     */
+    public String getJobmineHtmlIfModified (String url) throws JbmnplsLoggedOutException, IOException{
+        HtmlStringBuilder str = new HtmlStringBuilder();
+        switch (internalGetJobmineHtml(url, str, true)) {
+            case READ:
+                return str.toString();
+            case NOT_MODIFIED:
+                return NOT_MODIFIED;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Streaming version of getJobmineHtmlIfModified(url). If the server says
+     * the page did not change, the listener is never called. When the server
+     * does not support that, the page is still read through the listener and
+     * NOT_MODIFIED means that the html was the same as last time.
+     * @param url
+     * @param listener receives each chunk of html
+     * @return the result of the request
+     * @throws JbmnplsLoggedOutException
+     * @throws IOException
+     */
+    public RESPONSE getJobmineHtmlIfModified (String url, OnHtmlReadListener listener) throws JbmnplsLoggedOutException, IOException{
+        return internalGetJobmineHtml(url, listener, true);
+    }
+
+    /**
+     * Forget the last response of this page so that the next
+     * getJobmineHtmlIfModified reads it again. Use this when the page could
+     * not be parsed or saved.
+     * @param url
+     */
+    public void forgetResponse(String url) {
+        responseCache.remove(username, url);
+    }
+
+    private RESPONSE internalGetJobmineHtml (String url, OnHtmlReadListener listener, boolean useCache) throws JbmnplsLoggedOutException, IOException{
+        getLane.acquireUninterruptibly();
+        startRequest();
+        try {
+            HttpResponse response = null;
+            String user = username;
+            renewExpiredSession();
+            ResponseCache.Entry cached = useCache ? responseCache.get(user, url) : null;
+
+            // Fingerprint the html as it is read to compare with last time
+            FingerprintListener fingerprint = useCache ? new FingerprintListener(listener) : null;
+            RequestMetrics.Sample sample = metrics.get(getEndpointName(url, null)).start();
+            boolean finished = false;
             try {
                 // Attempt 3 times if logged out
                 boolean loggedIn = false;
                 for (int i = 0; i < MAX_LOGIN_ATTEMPTS; i++) {
-                    if (in != null) {
-                        in.close();
-                        in = null;
-                    }
-                    HttpResponse response = internalGet(url);
-                    if (response != null) {
-                        in = response.getEntity().getContent();
-                        reader = new BufferedReader(new InputStreamReader(in,
-                                DEFAULT_HTML_ENCODER), BUFFER_READER_SIZE);
+                    int session = loginCount;
+                    LOGGED result;
+                    HttpGet request = new HttpGet(url);
+                    sessionLock.readLock().lock();
+                    try {
+                        response = internalGet(request, cached);
+                        if (response == null) {
+                            return RESPONSE.FAILED;
+                        }
+                        sample.onFirstByte();
+                        if (cached != null && response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                            updateTimestamp();
+                            finished = true;
+                            sample.finish();
+                            return RESPONSE.NOT_MODIFIED;
+                        }
 
-                        // Validates the html to make sure we logged in
+                        // Reads the html and makes sure we were logged in
                         // If failed to login, try it again 2 more times
-                        LOGGED result = validateLoginJobmine(reader);
-                        if (result == LOGGED.IN) {
-                            loggedIn = true;
-                            break;
-                        } else if (result == LOGGED.OFFLINE) {
-                            throw new JbmnplsLoggedOutException();
-                        }
-                    } else {
-                        return null;
+                        result = readResponse(request, response, useCache ? fingerprint : listener, sample);
+                    } finally {
+                        done(request);
+                        sessionLock.readLock().unlock();
+                    }
+                    if (result == LOGGED.IN) {
+                        loggedIn = true;
+                        break;
+                    } else if (result == LOGGED.OFFLINE) {
+                        throw new JbmnplsLoggedOutException();
                     }
-                    if (login() == LOGGED.OFFLINE) {
+                    sample.onRetry();
+                    if (relogin(session) == LOGGED.OFFLINE) {
                         throw new JbmnplsLoggedOutException();
                     }
                 }
@@ -312,52 +700,63 @@ public final class JbmnplsHttpClient {
                     throw new JbmnplsLoggedOutException();
                 }
                 // Successfully logged in
-                StringBuilder str = new StringBuilder();
-                String line = null;
-                while ((line = reader.readLine()) != null) {
-                    str.append(line);
-                }
                 updateTimestamp();
-                return str.toString();
-            } catch (IOException e) {
-                throw e;
-            } finally {
-                if (canAbort && pendingAbort) {
-                    pendingAbort = false;
+                finished = true;
+                sample.finish();
+                if (!useCache) {
+                    return RESPONSE.READ;
                 }
-                if (in != null) {
-                    try {
-                        in.close();
-                    } catch(IOException e) {}
+                ResponseCache.Fingerprint page = fingerprint.fingerprint;
+                if (cached != null && cached.isSameContent(page.getHash(), page.getLength())) {
+                    return RESPONSE.NOT_MODIFIED;
+                }
+                responseCache.put(user, url, new ResponseCache.Entry(
+                        getHeaderValue(response, "ETag"), getHeaderValue(response, "Last-Modified"),
+                        page.getHash(), page.getLength()));
+                return RESPONSE.READ;
+            } finally {
+                if (!finished) {
+                    sample.fail(isAbortPending());
                 }
             }
+        } finally {
+            endRequest();
+            getLane.release();
         }
     }
 
     //======================
     //  POST HTTP Requests
     //======================
-    public HttpResponse post(List<NameValuePair> postData, String url) {
-        synchronized (requestLock) {
-            HttpResponse result = internalPost(postData, url);
-            if (canAbort && pendingAbort) {
-                pendingAbort = false;
-            }
-            return result;
+    public HttpResponse post(List<NameValuePair> postData, String url) throws JbmnplsUnavailableException {
+        postLane.lock.lock();
+        try {
+            return internalPost(postData, url);
+        } finally {
+            postLane.lock.unlock();
         }
     }
 
-    public HttpResponse internalPost(List<NameValuePair> postData, String url) {
-        if (canAbort && pendingAbort) {
-            return null;
+    public HttpResponse internalPost(List<NameValuePair> postData, String url) throws JbmnplsUnavailableException {
+        HttpPost request = new HttpPost(url);
+        sessionLock.readLock().lock();
+        startRequest();
+        try {
+            return internalPost(request, postData);
+        } finally {
+            endRequest();
+            done(request);
+            sessionLock.readLock().unlock();
         }
-        HttpResponse response = null;
+    }
+
+    private HttpResponse internalPost(HttpPost request, List<NameValuePair> postData) throws JbmnplsUnavailableException {
         try {
-            currentRequest = new HttpPost(url);
-            ((HttpPost)currentRequest).setEntity(new UrlEncodedFormEntity(postData));
-            response = client.execute(currentRequest);
-            currentRequest = null;
-            return response;
+            request.setEntity(new UrlEncodedFormEntity(postData));
+            return send(request);
+        } catch (JbmnplsUnavailableException e) {
+            // Not sent because JobMine is down, not a failed request
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -365,38 +764,79 @@ public final class JbmnplsHttpClient {
     }
 
     public String postJobmineHtml (List<NameValuePair> postData, String url) throws JbmnplsLoggedOutException, IOException {
-        synchronized (requestLock) {
-            InputStream in = null;
-            BufferedReader reader = null;
+        return postJobmineHtml(postLane, postData, url);
+    }
+
+    public String postJobmineHtml (Lane lane, List<NameValuePair> postData, String url) throws JbmnplsLoggedOutException, IOException {
+        HtmlStringBuilder str = new HtmlStringBuilder();
+        if (!postJobmineHtml(lane, postData, url, str)) {
+            return null;
+        }
+        return str.toString();
+    }
+
+    /**
+     * Streaming version of postJobmineHtml(postData, url), see
+     * getJobmineHtml(url, listener).
+     * @param postData
+     * @param url
+     * @param listener receives each chunk of html
+     * @return false if there was no response, true when the page was read
+     * @throws JbmnplsLoggedOutException
+     * @throws IOException
+     */
+    public boolean postJobmineHtml (List<NameValuePair> postData, String url, OnHtmlReadListener listener) throws JbmnplsLoggedOutException, IOException {
+        return postJobmineHtml(postLane, postData, url, listener);
+    }
+
+    /**
+     * Same as postJobmineHtml(postData, url, listener) but the request waits
+     * for the other POST requests in the given lane instead of the default one.
+     * @param lane from createLane()
+     * @param postData
+     * @param url
+     * @param listener receives each chunk of html
+     * @return false if there was no response, true when the page was read
+     * @throws JbmnplsLoggedOutException
+     * @throws IOException
+     */
+    public boolean postJobmineHtml (Lane lane, List<NameValuePair> postData, String url, OnHtmlReadListener listener) throws JbmnplsLoggedOutException, IOException {
+        lane.lock.lock();
+        startRequest();
+        try {
+            renewExpiredSession();
+            RequestMetrics.Sample sample = metrics.get(getEndpointName(url, postData)).start();
+            boolean finished = false;
             try {
                 // Attempt 3 times if logged out
                 boolean loggedIn = false;
                 for (int i = 0; i < MAX_LOGIN_ATTEMPTS; i++) {
-                    if (in != null) {
-                        in.close();
-                        in = null;
-                    }
-
-                    HttpResponse response = internalPost(postData, url);
-                    if (response != null) {
-                        in = response.getEntity().getContent();
-                        reader = new BufferedReader(new InputStreamReader(in,
-                                DEFAULT_HTML_ENCODER), BUFFER_READER_SIZE);
-                        reader.mark(1);
+                    int session = loginCount;
+                    LOGGED result;
+                    HttpPost request = new HttpPost(url);
+                    sessionLock.readLock().lock();
+                    try {
+                        HttpResponse response = internalPost(request, postData);
+                        if (response == null) {
+                            return false;
+                        }
+                        sample.onFirstByte();
 
-                        // Validates the html to make sure we logged in
+                        // Reads the html and makes sure we were logged in
                         // If failed to login, try it again 2 more times
-                        LOGGED result = validateLoginJobmine(reader);
-                        if (result == LOGGED.IN) {
-                            loggedIn = true;
-                            break;
-                        } else if (result == LOGGED.OFFLINE) {
-                            throw new JbmnplsLoggedOutException();
-                        }
-                    } else {
-                        return null;
+                        result = readResponse(request, response, listener, sample);
+                    } finally {
+                        done(request);
+                        sessionLock.readLock().unlock();
+                    }
+                    if (result == LOGGED.IN) {
+                        loggedIn = true;
+                        break;
+                    } else if (result == LOGGED.OFFLINE) {
+                        throw new JbmnplsLoggedOutException();
                     }
-                    if (login() == LOGGED.OFFLINE) {
+                    sample.onRetry();
+                    if (relogin(session) == LOGGED.OFFLINE) {
                         throw new JbmnplsLoggedOutException();
                     }
                 }
@@ -404,52 +844,202 @@ public final class JbmnplsHttpClient {
                     throw new JbmnplsLoggedOutException();
                 }
                 // Successfully logged in
-                StringBuilder str = new StringBuilder();
-                String line = null;
-                reader.reset();
-                while ((line = reader.readLine()) != null) {
-                    str.append(line);
-                }
                 updateTimestamp();
-                return str.toString();
-            } catch (IOException e) {
-                throw e;
+                finished = true;
+                sample.finish();
+                return true;
             } finally {
-                if (canAbort && pendingAbort) {
-                    pendingAbort = false;
-                }
-                if (in != null) {
-                    try {
-                        in.close();
-                    } catch(IOException e) {}
+                if (!finished) {
+                    sample.fail(isAbortPending());
                 }
             }
+        } finally {
+            endRequest();
+            lane.lock.unlock();
         }
     }
 
+    /**
+     * Creates a new lane for a sequence of POST requests that has to stay
+     * in order, see Lane.
+     * @return a new lane
+     */
+    public Lane createLane() {
+        return new Lane();
+    }
+
     //========================
     //  Abort/Cancel Methods
     //========================
+    /**
+     * Aborts every GET and POST that is running, except the ones sent from a
+     * thread that called canAbort(false). Requests sent after this are not
+     * affected.
+     */
     public void abort() {
-        pendingAbort = true;
-        if (currentRequest != null && canAbort) {
-            currentRequest.abort();     // ignore the warning.
-            currentRequest = null;
+        abortCount.incrementAndGet();
+        synchronized (currentRequests) {
+            for (HttpRequestBase request : currentRequests) {
+                request.abort();     // ignore the warning.
+            }
+            currentRequests.clear();
         }
     }
 
+    /**
+     * Only changes the requests sent from the calling thread
+     * @param flag false so that abort() does not stop them
+     */
     public void canAbort(boolean flag) {
-        canAbort = flag;
+        abortStates.get().canAbort = flag;
     }
 
+    /**
+     * @return true if the request running on this thread was aborted
+     */
     public boolean isAbortPending() {
-        return pendingAbort;
+        AbortState state = abortStates.get();
+        return state.depth > 0 && state.canAbort && state.aborts != abortCount.get();
+    }
+
+    //===================
+    //  Circuit Breaker
+    //===================
+    /**
+     * @return false if requests are being refused because JobMine was down
+     * or offline the last time it was tried
+     */
+    public static boolean isJobmineAvailable() {
+        return circuitBreaker.isAvailable();
+    }
+
+    /**
+     * @return milliseconds until JobMine will be tried again, 0 if it is
+     * available
+     */
+    public static long getJobmineRetryDelay() {
+        return circuitBreaker.getRetryDelay();
+    }
+
+    //===========
+    //  Metrics
+    //===========
+    /**
+     * @return the timing and size numbers of every endpoint used so far
+     */
+    public static RequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Adds the time it took to parse a page that was read as a String.
+     * @param url of the page
+     * @param millis
+     */
+    public void recordParseTime(String url, long millis) {
+        metrics.get(getEndpointName(url, null)).recordParse(millis);
+    }
+
+    /**
+     * Names the endpoint by its link constant, POST requests also add their
+     * ICAction so that each step of a page is counted on its own.
+     * @param url
+     * @param postData can be null
+     * @return the name of the endpoint
+     */
+    static String getEndpointName(String url, List<NameValuePair> postData) {
+        String name;
+        if (url.startsWith(GET_LINKS.DESCRIP_PRE)) {
+            name = "DESCRIPTION";
+        } else {
+            name = endpointNames.get(url);
+            if (name == null) {
+                name = url.substring(url.lastIndexOf('/') + 1);
+            }
+        }
+        if (postData != null) {
+            for (NameValuePair pair : postData) {
+                if ("ICAction".equals(pair.getName())) {
+                    return name + " " + pair.getValue();
+                }
+            }
+        }
+        return name;
     }
 
     //===================
     //  Private Methods
     //===================
+    /**
+     * Starts over with a new transport, this drops the cookies. Hold the
+     * write lock of sessionLock so no request is using the old transport.
+     */
     private synchronized void reset() {
+        HttpTransport old = transport;
+        transport = new CircuitBreakerTransport(transportFactory.create(), circuitBreaker);
+        if (old != null) {
+            old.shutdown();
+        }
+    }
+
+    /**
+     * Call before a request and endRequest() after it, the requests sent in
+     * between (eg. to log in again) are aborted with it.
+     */
+    private void startRequest() {
+        AbortState state = abortStates.get();
+        if (state.depth++ == 0) {
+            state.aborts = abortCount.get();
+        }
+    }
+
+    private void endRequest() {
+        abortStates.get().depth--;
+    }
+
+    /**
+     * Sends the request through the transport, abort() can stop it until
+     * done() is called. Hold the read lock of sessionLock while it is used.
+     * @param request
+     * @return the response
+     * @throws IOException if it failed or the request was aborted
+     */
+    private HttpResponse send(HttpRequestBase request) throws IOException {
+        if (abortStates.get().canAbort) {
+            currentRequests.add(request);
+        }
+        if (isAbortPending()) {
+            throw new IOException("The request was aborted.");
+        }
+        return transport.execute(request);
+    }
+
+    private void done(HttpRequestBase request) {
+        currentRequests.remove(request);
+    }
+
+    /**
+     * Reads the html of the response with readJobmineHtml and closes it.
+     */
+    private LOGGED readResponse(HttpRequestBase request, HttpResponse response,
+            OnHtmlReadListener listener, RequestMetrics.Sample sample) throws IOException {
+        HttpEntity entity = response.getEntity();
+        InputStream in = entity.getContent();
+        try {
+            return readJobmineHtml(new InputStreamReader(in, DEFAULT_HTML_ENCODER), listener, entity, sample);
+        } finally {
+            // Do not download the rest of a page the listener does not need
+            if (listener instanceof BoundedHtmlListener
+                    && ((BoundedHtmlListener) listener).isDone()) {
+                request.abort();
+            }
+            try {
+                in.close();
+            } catch(IOException e) {}
+        }
+    }
+
+    private HttpTransport createJobmineTransport() {
         // Since JobMine's SSL implementation broke around Spring 2014, we need to implement
         // a custom trust certificate. This is not ideal but hey, it's Waterloo.
         // More info: http://stackoverflow.com/a/6378872/654628
@@ -465,44 +1055,160 @@ public final class JbmnplsHttpClient {
         schemeRegistry.register(new Scheme("https", fact, 443));
 
         HttpParams params = new BasicHttpParams();
+        ConnManagerParams.setMaxTotalConnections(params, MAX_CONNECTIONS);
+        ConnManagerParams.setMaxConnectionsPerRoute(params, new ConnPerRouteBean(MAX_CONNECTIONS));
         HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);
         HttpProtocolParams.setUserAgent(params, "Mozilla/5.0 (Windows NT 6.2; WOW64; rv:16.0) Gecko/20100101 Firefox/16.0");
-        client = new DefaultHttpClient(new ThreadSafeClientConnManager(params, schemeRegistry), params);
+        DefaultHttpClient newClient = new DefaultHttpClient(new ThreadSafeClientConnManager(params, schemeRegistry), params);
+
+        // Ask for compressed pages, JobMine's tables compress very well
+        DecompressingEntity.enable(newClient);
+        return new ApacheTransport(newClient);
     }
 
-    private LOGGED validateLoginJobmine(BufferedReader reader) throws IOException {
-        char[] buffer = new char[LOGIN_READ_LENGTH];
-        reader.read(buffer, 0, LOGIN_READ_LENGTH);
-        String text = new String(buffer);
+    /**
+     * Reads the response in chunks and passes them to the listener while
+     * looking for the markers of the sign in and error pages. The first
+     * LOGIN_CHECK_LENGTH chars are scanned before anything is passed on, the
+     * markers are near the top of those pages so the listener never sees
+     * them and can be used again for the next try.
+     * Line breaks are stripped so that the html is the same as joining each
+     * line from readLine().
+     * @param reader
+     * @param listener receives the html, null to only check the login
+     * @param entity of the response, its length is used to size the html
+     * @param sample records the length of the html, the bytes of the entity
+     *          and the time spent in the listener, can be null
+     * @return IN if the page was read, OUT or OFFLINE if it was the sign in
+     *          or error page
+     * @throws IOException
+     * @throws JbmnplsLoggedOutException if a marker was found after html was
+     *          already passed to the listener
+     */
+    private LOGGED readJobmineHtml(Reader reader, OnHtmlReadListener listener, HttpEntity entity,
+            RequestMetrics.Sample sample) throws IOException {
+        if (listener instanceof SizedHtmlListener) {
+            // Compressed responses do not know their length, guess from the last pages
+            long contentLength = entity.getContentLength();
+            int expected = contentLength > 0 && contentLength < Integer.MAX_VALUE
+                    ? (int) contentLength : expectedHtmlLength;
+            if (expected > 0) {
+                ((SizedHtmlListener) listener).onHtmlLength(expected);
+            }
+        }
+        MarkerScanner.Matcher markers = LOGIN_MARKERS.matcher();
+        char[] buffer = bufferPool.obtain();
+        try {
+            return readJobmineHtml(reader, listener, markers, buffer, sample);
+        } finally {
+            bufferPool.recycle(buffer);
+            if (sample != null && entity instanceof DecompressingEntity) {
+                DecompressingEntity counted = (DecompressingEntity) entity;
+                sample.addTransfer(counted.getReceivedLength(), counted.getDecodedLength());
+            }
+        }
+    }
 
-        if (text.contains(LOGIN_UNIQUE_STRING)) {
-            // On login page
-            reader.skip(LOGIN_ERROR_MSG_SKIP);
-            reader.read(buffer, 0, LOGIN_READ_LENGTH);
-            text = new String(buffer);
+    private LOGGED readJobmineHtml(Reader reader, OnHtmlReadListener listener,
+            MarkerScanner.Matcher markers, char[] buffer, RequestMetrics.Sample sample) throws IOException {
+        // Time spent in a listener that parses the html counts as parse time
+        boolean timeListener = sample != null && listener != null
+                && !(listener instanceof HtmlStringBuilder);
+        boolean hasPassedHtml = false;
+        boolean hasStopped = false;
+        LOGGED result = LOGGED.IN;
+        int read, length, i, total = 0;
 
-            // Check for offline error
-            if (text.contains(LOGIN_OFFLINE_MESSAGE)) {
-                return LOGGED.OFFLINE;
+        // Nothing goes to the listener until the start of the page was checked,
+        // so the sign in page of a try that gets logged out is never passed on
+        while ((read = read(reader, buffer, hasPassedHtml ? 1 : LOGIN_CHECK_LENGTH)) != -1) {
+            length = 0;
+            for (i = 0; i < read; i++) {
+                if (buffer[i] != '\n' && buffer[i] != '\r') {
+                    buffer[length++] = buffer[i];
+                }
             }
-            return LOGGED.OUT;
-
-        } else if (text.contains(FAILED_URL)) {
-            synchronized (timeStampLock) {
-                loginTimeStamp = 0;
+            if (markers.scan(buffer, 0, length)) {
+                if (markers.hasFound(MARKER_FAILED_URL) && !markers.hasFound(MARKER_LOGIN_PAGE)) {
+                    synchronized (timeStampLock) {
+                        loginTimeStamp = 0;
+                    }
+                    result = LOGGED.OUT;
+                    break;
+                }
+                // On login page, keep going in case it says JobMine is offline
+                if (markers.hasFound(MARKER_LOGIN_PAGE) && markers.hasFound(MARKER_OFFLINE)) {
+                    circuitBreaker.onOffline();
+                    result = LOGGED.OFFLINE;
+                    break;
+                }
+                continue;
+            }
+            if (length > 0 && listener != null) {
+                if (timeListener) {
+                    long start = System.nanoTime();
+                    listener.onHtmlRead(buffer, 0, length);
+                    sample.addParseTime(System.nanoTime() - start);
+                } else {
+                    listener.onHtmlRead(buffer, 0, length);
+                }
+                hasPassedHtml = true;
+                total += length;
+                if (listener instanceof BoundedHtmlListener
+                        && ((BoundedHtmlListener) listener).isDone()) {
+                    hasStopped = true;
+                    break;
+                }
             }
-            return LOGGED.OUT;
         }
+        if (result == LOGGED.IN && markers.hasFoundAny()) {
+            result = LOGGED.OUT;
+        }
+        if (result != LOGGED.IN) {
+            if (hasPassedHtml) {
+                // The listener has part of this page, reading the next try into it would mix them
+                throw new JbmnplsLoggedOutException("Found the login markers after html was read.");
+            }
+            return result;
+        }
+        if (total > 0 && !hasStopped) {     // Only full pages give the expected length
+            expectedHtmlLength += (total - expectedHtmlLength) / 4;
+        }
+        if (sample != null) {
+            sample.addBody(total);
+        }
+        circuitBreaker.onRecovered();
         return LOGGED.IN;
     }
 
-    private BufferedReader getReaderFromResponse(HttpResponse response) throws IllegalStateException, IOException {
+    /**
+     * Reads into the buffer until it has at least min chars or the html ended
+     * @return the number of chars read, -1 if the html already ended
+     */
+    private static int read(Reader reader, char[] buffer, int min) throws IOException {
+        int count = 0, read;
+        do {
+            read = reader.read(buffer, count, buffer.length - count);
+            if (read == -1) {
+                return count == 0 ? -1 : count;
+            }
+            count += read;
+        } while (count < min);
+        return count;
+    }
+
+    private Reader getReaderFromResponse(HttpResponse response) throws IllegalStateException, IOException {
         return getReaderFromResponse(response, DEFAULT_HTML_ENCODER);
     }
 
-    private BufferedReader getReaderFromResponse(HttpResponse response, String encoder) throws IllegalStateException, IOException {
+    private Reader getReaderFromResponse(HttpResponse response, String encoder) throws IllegalStateException, IOException {
         InputStream in = response.getEntity().getContent();
-        return new BufferedReader(new InputStreamReader(in, encoder), BUFFER_READER_SIZE);
+        return new InputStreamReader(in, encoder);
+    }
+
+    private String getHeaderValue(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
     }
 
     private void updateTimestamp() {
@@ -510,4 +1216,89 @@ public final class JbmnplsHttpClient {
             loginTimeStamp = System.currentTimeMillis();
         }
     }
-}
\ No newline at end of file
+
+    //=================
+    //  Html Listener
+    //=================
+    /**
+     * Collects the streamed html back into a String for the String based
+     * getJobmineHtml and postJobmineHtml.
+     */
+    private static final class HtmlStringBuilder implements SizedHtmlListener {
+        private final StringBuilder str = new StringBuilder();
+
+        @Override
+        public void onHtmlLength(int length) {
+            if (str.length() == 0) {
+                str.ensureCapacity(length);
+            }
+        }
+
+        @Override
+        public void onHtmlRead(char[] buffer, int offset, int length) {
+            str.append(buffer, offset, length);
+        }
+
+        @Override
+        public String toString() {
+            return str.toString();
+        }
+    }
+
+    /**
+     * Passes the html to the listener while computing its fingerprint
+     */
+    private static final class FingerprintListener implements SizedHtmlListener {
+        private final OnHtmlReadListener listener;
+        private final ResponseCache.Fingerprint fingerprint = new ResponseCache.Fingerprint();
+
+        public FingerprintListener(OnHtmlReadListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onHtmlLength(int length) {
+            if (listener instanceof SizedHtmlListener) {
+                ((SizedHtmlListener) listener).onHtmlLength(length);
+            }
+        }
+
+        @Override
+        public void onHtmlRead(char[] buffer, int offset, int length) {
+            fingerprint.update(buffer, offset, length);
+            listener.onHtmlRead(buffer, offset, length);
+        }
+    }
+
+    //=============
+    //  Interface
+    //=============
+    public interface OnHtmlReadListener {
+        /**
+         * Called for each chunk of html read from the response. The buffer is
+         * reused after this returns so copy anything you want to keep.
+         * @param buffer
+         * @param offset
+         * @param length
+         */
+        public void onHtmlRead(char[] buffer, int offset, int length);
+    }
+
+    /**
+     * Listeners that only need the start of a page return true from isDone()
+     * once they have it, the rest of the response is then not read and its
+     * connection is closed. Pages read with getJobmineHtmlIfModified are
+     * always read to the end.
+     */
+    public interface BoundedHtmlListener extends OnHtmlReadListener {
+        public boolean isDone();
+    }
+
+    /**
+     * Listeners that keep the html can use this to allocate enough space
+     * before the first chunk arrives.
+     */
+    private interface SizedHtmlListener extends OnHtmlReadListener {
+        public void onHtmlLength(int length);
+    }
+}
@@ -34,6 +34,7 @@ public abstract class JbmnplsRequestQueue<TProgress> {
     protected final Queue<Task> taskQueue = new LinkedList<Task>();
     private RequestTask currentTask;
     protected JbmnplsHttpClient client;
+    private final JbmnplsHttpClient.Lane lane;
     private final String url;
     private final JbmnplsActivityBase activity;
     private final JbmnplsRequestQueue<TProgress> self;
@@ -47,6 +48,7 @@ public abstract class JbmnplsRequestQueue<TProgress> {
         activity = a;
         self = this;
         client = c;
+        lane = c.createLane();
         stateNum = stateNumber == null ? 0 : Integer.parseInt(stateNumber, 10);
         icsID = id;
     }
@@ -148,7 +150,8 @@ public abstract class JbmnplsRequestQueue<TProgress> {
         postData.add(new BasicNameValuePair("ICSID", icsID));
 
         // Do Post
-        response = client.postJobmineHtml(postData, url);
+        // Posts are in their own lane so other pages can load meanwhile
+        response = client.postJobmineHtml(lane, postData, url);
 
         // Check response for authorization
         if (response == null) {
@@ -1,8 +1,6 @@
 package com.jobmineplus.mobile.widgets;
 
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Comparator;
 import java.util.Date;
@@ -13,7 +11,6 @@ import android.text.TextUtils;
 import com.jobmineplus.mobile.exceptions.JbmnplsException;
 import com.jobmineplus.mobile.exceptions.JbmnplsLoggedOutException;
 import com.jobmineplus.mobile.exceptions.JbmnplsParsingException;
-import com.jobmineplus.mobile.widgets.table.SimpleHtmlParser;
 
 public class Job {
     // ================
@@ -114,7 +111,8 @@ public class Job {
 
    /**
     * Database Constructor This is used for putting all data back into a Job
-    * object
+    * object. The state, statuses and interview type are the ordinals of their
+    * enums or -1 if they were not stored
     *
     * @param jId
     * @param jTitle
@@ -144,25 +142,25 @@ public class Job {
     * @param jInterviewer
     */
     public Job(int jId, String jTitle, String jEmployer, String jTerm,
-            String jState, String jStatus, String jAppStatus, long jLastToApply, int jNumApps,
+            int jState, int jStatus, int jAppStatus, long jLastToApply, int jNumApps,
             int jOpenings, long jOpenToApply, String jEmployerFull,
             int jGradesRequired, String jLocation, String jDisciplines,
             String jLevels, String jHiringSupport, String jWorkSupport,
             String jDescription, String jWarning, long jInterviewStart,
-            long jInterviewEnd, String jInterviewType, String jRoom,
+            long jInterviewEnd, int jInterviewType, String jRoom,
             String jInstructions, String jInterviewer) {
         setId(jId);
         title = jTitle;
         employer = jEmployer;
         term = jTerm;
-        if (jState != null) {
-            state = STATE.getStatefromString(jState);
+        if (jState != -1) {
+            state = STATE.getStatefromOrdinal(jState);
         }
-        if (jStatus != null) {
-            status = STATUS.getStatusfromString(jStatus);
+        if (jStatus != -1) {
+            status = STATUS.getStatusfromOrdinal(jStatus);
         }
-        if (jAppStatus != null) {
-            app_status = APPLY_STATUS.getApplicationStatusfromString(jAppStatus);
+        if (jAppStatus != -1) {
+            app_status = APPLY_STATUS.getApplicationStatusfromOrdinal(jAppStatus);
         }
         lastToApply = new Date(jLastToApply);
         numApps = jNumApps;
@@ -180,7 +178,8 @@ public class Job {
         warning = jWarning;
         interviewStartTime = new Date(jInterviewStart);
         interviewEndTime = new Date(jInterviewEnd);
-        interview_type = INTERVIEW_TYPE.getTypefromString(jInterviewType);
+        interview_type = jInterviewType == -1 ? null
+                : INTERVIEW_TYPE.getTypefromOrdinal(jInterviewType);
         room = jRoom;
         instructions = jInstructions;
         interviewer = jInterviewer;
@@ -276,18 +275,28 @@ public class Job {
         PENDING("Pending", 4),
         UNFILLED("Unfilled", 8);
 
-        public static STATE getStatefromString(String text)
+        private static final EnumLookup<STATE> sLookup = new EnumLookup<STATE>(values());
+
+        public static STATE getStatefromString(CharSequence text)
                 throws JbmnplsParsingException {
             if (text == null) {
                 return null;
             }
-            for (STATE b : STATE.values()) {
-                if (text.equalsIgnoreCase(b.toString())) {
-                    return b;
-                }
+            STATE b = sLookup.get(text);
+            if (b == null) {
+                throw new JbmnplsParsingException("State: Cannot match value '"
+                        + text + "'");
             }
-            throw new JbmnplsParsingException("State: Cannot match value '"
-                    + text + "'");
+            return b;
+        }
+
+        public static STATE getStatefromOrdinal(int ordinal)
+                throws JbmnplsParsingException {
+            STATE b = sLookup.fromOrdinal(ordinal);
+            if (b == null) {
+                throw new JbmnplsParsingException("State: Cannot match ordinal " + ordinal);
+            }
+            return b;
         }
 
         public static STATE getDefault() {
@@ -326,18 +335,28 @@ public class Job {
         ALTERNATE("Alternate", 6),
         BLANK("", 0);
 
-        public static STATUS getStatusfromString(String text)
+        private static final EnumLookup<STATUS> sLookup = new EnumLookup<STATUS>(values());
+
+        public static STATUS getStatusfromString(CharSequence text)
                 throws JbmnplsParsingException {
             if (text == null) {
                 return null;
             }
-            for (STATUS b : STATUS.values()) {
-                if (text.equalsIgnoreCase(b.toString())) {
-                    return b;
-                }
+            STATUS b = sLookup.get(text);
+            if (b == null) {
+                throw new JbmnplsParsingException("Status: Cannot match value '"
+                        + text + "'");
             }
-            throw new JbmnplsParsingException("Status: Cannot match value '"
-                    + text + "'");
+            return b;
+        }
+
+        public static STATUS getStatusfromOrdinal(int ordinal)
+                throws JbmnplsParsingException {
+            STATUS b = sLookup.fromOrdinal(ordinal);
+            if (b == null) {
+                throw new JbmnplsParsingException("Status: Cannot match ordinal " + ordinal);
+            }
+            return b;
         }
 
         public static STATUS getDefault() {
@@ -371,18 +390,29 @@ public class Job {
         NO_APPS("No Apps Available", 2),
         NOT_POSTED("Not Posted", 2);
 
-        public static APPLY_STATUS getApplicationStatusfromString(String text)
+        private static final EnumLookup<APPLY_STATUS> sLookup =
+                new EnumLookup<APPLY_STATUS>(values());
+
+        public static APPLY_STATUS getApplicationStatusfromString(CharSequence text)
                 throws JbmnplsParsingException {
             if (text == null) {
                 return null;
             }
-            for (APPLY_STATUS b : APPLY_STATUS.values()) {
-                if (text.equalsIgnoreCase(b.toString())) {
-                    return b;
-                }
+            APPLY_STATUS b = sLookup.get(text);
+            if (b == null) {
+                throw new JbmnplsParsingException("Application Status: Cannot match value '"
+                        + text + "'");
             }
-            throw new JbmnplsParsingException("Application Status: Cannot match value '"
-                    + text + "'");
+            return b;
+        }
+
+        public static APPLY_STATUS getApplicationStatusfromOrdinal(int ordinal)
+                throws JbmnplsParsingException {
+            APPLY_STATUS b = sLookup.fromOrdinal(ordinal);
+            if (b == null) {
+                throw new JbmnplsParsingException("Application Status: Cannot match ordinal " + ordinal);
+            }
+            return b;
         }
 
         public static APPLY_STATUS getDefault() {
@@ -411,16 +441,17 @@ public class Job {
         JUNIOR("Junior"), INTERMEDIATE("Intermediate"), SENIOR("Senior"), BACHELORS(
                 "Bachelors"), MASTERS("Masters"), PHD("Phd");
 
-        public static LEVEL getLevelfromString(String text)
+        private static final EnumLookup<LEVEL> sLookup = new EnumLookup<LEVEL>(values());
+
+        public static LEVEL getLevelfromString(CharSequence text)
                 throws JbmnplsParsingException {
             if (text != null) {
-                if (text.equals("")) {
+                if (text.length() == 0) {
                     return null;
                 }
-                for (LEVEL b : LEVEL.values()) {
-                    if (text.equalsIgnoreCase(b.toString())) {
-                        return b;
-                    }
+                LEVEL b = sLookup.get(text);
+                if (b != null) {
+                    return b;
                 }
             }
             throw new JbmnplsParsingException("Level: Cannot match value '"
@@ -456,18 +487,35 @@ public class Job {
         WEBCAM      ("Webcam"),
         SPECIAL     ("Special"),
         CANCELLED   ("Cancelled");
-        public static INTERVIEW_TYPE getTypefromString(String text) throws JbmnplsParsingException {
+        private static final EnumLookup<INTERVIEW_TYPE> sLookup =
+                new EnumLookup<INTERVIEW_TYPE>(values());
+
+        public static INTERVIEW_TYPE getTypefromString(CharSequence text) throws JbmnplsParsingException {
             if (text == null) {
                 return null;
             }
+
+            // Usually the text is only the type, otherwise look for it inside the text
+            INTERVIEW_TYPE type = sLookup.get(text);
+            if (type != null) {
+                return type;
+            }
+            String lower = text.toString().toLowerCase(Locale.getDefault());
             for (INTERVIEW_TYPE interview_type : INTERVIEW_TYPE.values()) {
                 String a = interview_type.toString().toLowerCase(Locale.getDefault());
-                text = text.toLowerCase(Locale.getDefault());
-                if (text.contains(a)) {
+                if (lower.contains(a)) {
                     return interview_type;
                 }
             }
-            throw new JbmnplsParsingException("State: Cannot match value '" + text + "'");
+            throw new JbmnplsParsingException("Interview type: Cannot match value '" + text + "'");
+        }
+
+        public static INTERVIEW_TYPE getTypefromOrdinal(int ordinal) throws JbmnplsParsingException {
+            INTERVIEW_TYPE type = sLookup.fromOrdinal(ordinal);
+            if (type == null) {
+                throw new JbmnplsParsingException("Interview type: Cannot match ordinal " + ordinal);
+            }
+            return type;
         }
         @Override
         public String toString() {
@@ -541,9 +589,6 @@ public class Job {
 
     static public final String DESCR_URL_PREFIX = "https://jobmine.ccol.uwaterloo.ca/psc/SS/EMPLOYEE/WORK/c/UW_CO_STUDENTS.UW_CO_JOBDTLS?UW_CO_JOB_ID=";
     private final short NUM_DIGITS_ID = 8;
-    private final String REQUIRED_TEXT = "Required";
-    private final String TAG = "span";
-    private final int NUM_OF_TAGS = 32;
 
     // ===========================
     // Long list of properties
@@ -588,6 +633,7 @@ public class Job {
 
     // Other booleans
     protected boolean hasRead = false;
+    protected boolean hasSavedDescription = false;      // Lists leave out the description
 
     // ==============
     // Is Methods
@@ -617,7 +663,7 @@ public class Job {
     }
 
     public boolean hasDescriptionData() {
-        return description != null && description != "";
+        return hasSavedDescription || description != null && description != "";
     }
 
     // This is for interview data
@@ -687,6 +733,15 @@ public class Job {
         warning = text;
     }
 
+    /**
+     * Used when the job is read for a list without its description, so it
+     * still knows that the description was saved
+     * @param flag
+     */
+    public void setHasSavedDescription(boolean flag) {
+        hasSavedDescription = flag;
+    }
+
     public void setDescriptionData(
             String fullEmployerName,
             String title,
@@ -920,119 +975,36 @@ public class Job {
         return now.after(endTime);
     }
 
-    public String grabDescriptionData(JbmnplsHttpClient client) throws IOException {
-        // Get the html
-        String html;
+    /**
+     * Downloads the description page of this job and fills in its details.
+     * Only the page up to the description is read and it is not kept.
+     * @param client
+     * @return true if the details were read, false if there was no response
+     * @throws IOException
+     */
+    public boolean grabDescriptionData(JbmnplsHttpClient client) throws IOException {
+        StopWatch sw = new StopWatch(true);
+        DescriptionExtractor extractor = new DescriptionExtractor(this);
         try {
-            html = client.getJobmineHtml(url);
+            if (!client.getJobmineHtml(url, extractor)) {
+                return false;
+            }
         } catch (JbmnplsLoggedOutException e) {
             e.printStackTrace();
-            return null;
-        }
-        if (html == null) {
-            return null;
-        }
-
-        StopWatch sw = new StopWatch(true);
-
-        // Starts us at the correct table and then we get the text
-        int start = html.indexOf("id='ACE_width'");
-        if (start == -1) {
-            start = html.indexOf("id=\"ACE_width\"");
-            if (start == -1) { throw new JbmnplsParsingException("Cannot find id in html."); }
-        }
-
-        // Easiest way to parse job details is to go through spans
-        SimpleHtmlParser parser = new SimpleHtmlParser(html, start);
-        String text, disc = "";
-        for (int i = 0; i < NUM_OF_TAGS; i++) {
-            switch (i) {
-            case 3:
-                text = parser.getTextInNextElement(TAG);
-                setOpeningDateToApply(parseDate(text));
-                break;
-            case 4:
-                text = parser.getTextInNextElement(TAG);
-                setLastDateToApply(parseDate(text));
-                break;
-            case 10:
-                text = parser.getTextInNextElement(TAG);
-                setEmployerFullName(text);
-                break;
-            case 12:
-                text = parser.getTextInNextElement(TAG);
-                setTitle(text);
-                break;
-            case 14:
-                text = parser.getTextInNextElement(TAG);
-                setGradesRequired(text.equals(REQUIRED_TEXT));
-                break;
-            case 16:
-                text = parser.getTextInNextElement(TAG);
-                setLocation(text);
-                break;
-            case 18:
-                text = parser.getTextInNextElement(TAG);
-                setNumberOfOpenings(text.length() == 0 ? 0 : Integer.parseInt(text));
-                break;
-            case 20:
-                disc = parser.getTextInNextElement(TAG);
-                break;
-            case 21:
-                String temp = parser.getTextInNextElement(TAG);
-                if (temp.length() != 0) {
-                    disc += "," + temp;
-                }
-                setDisciplines(disc.split(","));
-                break;
-            case 23:
-                String[] thing = parser.getTextInNextElement(TAG).split(",");
-                LEVEL[] l = new LEVEL[thing.length];
-                for (int j = 0; j < thing.length; j++) {
-                    String tempStr = thing[j].trim();
-                    if (tempStr.length() != 0) {
-                        l[j] = LEVEL.getLevelfromString(tempStr);
-                    }
-                }
-                setLevels(l);
-                break;
-            case 27:
-                text = parser.getTextInNextElement(TAG);
-                setWorkSupport(text);
-                break;
-            case 26:
-                text = parser.getTextInNextElement(TAG);
-                setHiringSupport(text);
-                break;
-            case 29:
-                text = parser.getTextInNextElement(TAG);
-                setDescriptionWarning(text);
-                break;
-            case 31:
-                text = parser.getTextInNextElement(TAG);
-                setDescription(text.replace("<br />", "\n"));
-                break;
-            default:
-                parser.skipTag(TAG);
-                break;
-            }
+            return false;
         }
+        extractor.finish();
         hasRead = true;
-        sw.printElapsed("%s ms has passed to parse html");
-        return html;
+        sw.printElapsed("%s ms has passed to get and parse html");
+        return true;
     }
 
     protected Date parseDate(String dateString) {
         if (TextUtils.isEmpty(dateString)) {
             return new Date();
         }
-        try {
-            return new SimpleDateFormat("d MMM yyyy", Locale.ENGLISH)
-                    .parse(dateString);
-        } catch (ParseException error) {
-            error.printStackTrace();
-            return new Date();
-        }
+        long time = JobmineDate.parse(dateString);
+        return time == JobmineDate.INVALID ? new Date() : new Date(time);
     }
 
     protected String arrayJoin(Object[] array, CharSequence delimiter) {
@@ -0,0 +1,230 @@
+package com.jobmineplus.mobile.widgets;
+
+import java.text.DateFormatSymbols;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Reads and writes the dates JobMine uses without SimpleDateFormat, which
+ * is slow and cannot be shared between threads. Dates like "1 Jan 2014" or
+ * "1-Jan-2014" are read straight from the text into milliseconds in the
+ * default time zone, and dates are shown like "Jan 1, 2014".
+ * JobMine shows the same few deadlines on every row, so the last dates read
+ * and written are kept and reused, with the time zone they were made in so
+ * they are not reused after it changes.
+ * Everything here is safe to call from any thread.
+ */
+public final class JobmineDate {
+    /**
+     * Returned by parse when the text is not a date
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final String[] MONTHS =
+            DateFormatSymbols.getInstance(Locale.ENGLISH).getShortMonths();
+    private static final String[] DISPLAY_MONTHS =
+            DateFormatSymbols.getInstance(Locale.getDefault()).getShortMonths();
+    private static final int CACHE_SIZE = 32;   // Power of 2
+
+    private static final ThreadLocal<Calendar> sCalendar = new ThreadLocal<Calendar>() {
+        @Override
+        protected Calendar initialValue() {
+            return new GregorianCalendar();
+        }
+    };
+
+    // Entries are never changed so reading a slot that another thread is
+    // replacing gives either the old or the new entry
+    private static final ParsedDate[] sParsed = new ParsedDate[CACHE_SIZE];
+    private static final FormattedDate[] sFormatted = new FormattedDate[CACHE_SIZE];
+
+    private JobmineDate() {
+    }
+
+    //==================
+    //  Public Methods
+    //==================
+    /**
+     * @param text such as "1 Jan 2014" or "1-Jan-2014"
+     * @return the time in milliseconds or INVALID if it is not a date
+     */
+    public static long parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Same as parse(text) but only reads the text between start and end
+     * @param text
+     * @param start
+     * @param end
+     * @return the time in milliseconds or INVALID if it is not a date
+     */
+    public static long parse(CharSequence text, int start, int end) {
+        int i = start;
+
+        // Day
+        int day = 0, digits = 0;
+        while (i < end && digits < 2 && isDigit(text.charAt(i))) {
+            day = day * 10 + text.charAt(i++) - '0';
+            digits++;
+        }
+        if (digits == 0 || i >= end) {
+            return parseSlowly(text, start, end);
+        }
+        char separator = text.charAt(i++);
+        if (separator != ' ' && separator != '-') {
+            return parseSlowly(text, start, end);
+        }
+
+        // Month
+        int month = -1;
+        for (int m = 0; m < MONTHS.length && month == -1; m++) {
+            String name = MONTHS[m];
+            int length = name.length();
+            if (length > 0 && i + length <= end) {
+                int j = 0;
+                while (j < length && Character.toLowerCase(text.charAt(i + j))
+                        == Character.toLowerCase(name.charAt(j))) {
+                    j++;
+                }
+                if (j == length) {
+                    month = m;
+                    i += length;
+                }
+            }
+        }
+        if (month == -1 || i >= end || text.charAt(i++) != separator) {
+            return parseSlowly(text, start, end);
+        }
+
+        // Year
+        if (end - i != 4) {
+            return parseSlowly(text, start, end);
+        }
+        int year = 0;
+        for (; i < end; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return parseSlowly(text, start, end);
+            }
+            year = year * 10 + text.charAt(i) - '0';
+        }
+        return toMillis(year, month, day);
+    }
+
+    /**
+     * @param date
+     * @return the date like "Jan 1, 2014"
+     */
+    public static String format(Date date) {
+        return format(date.getTime());
+    }
+
+    public static String format(long millis) {
+        TimeZone zone = TimeZone.getDefault();
+        int slot = hash(millis) & (CACHE_SIZE - 1);
+        FormattedDate cached = sFormatted[slot];
+        if (cached != null && cached.millis == millis && cached.zoneId.equals(zone.getID())) {
+            return cached.text;
+        }
+
+        Calendar calendar = getCalendar(zone);
+        calendar.setTimeInMillis(millis);
+        StringBuilder sb = new StringBuilder(12)
+            .append(DISPLAY_MONTHS[calendar.get(Calendar.MONTH)]).append(' ')
+            .append(calendar.get(Calendar.DAY_OF_MONTH)).append(", ");
+        int year = calendar.get(Calendar.YEAR);
+        for (int digits = 1000; digits > 1 && year < digits; digits /= 10) {
+            sb.append('0');     // Always 4 digits like yyyy
+        }
+        String text = sb.append(year).toString();
+        sFormatted[slot] = new FormattedDate(millis, zone.getID(), text);
+        return text;
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    private static long toMillis(int year, int month, int day) {
+        TimeZone zone = TimeZone.getDefault();
+        int key = (year << 11) | (month << 7) | day;       // Day can be up to 99
+        int slot = hash(key) & (CACHE_SIZE - 1);
+        ParsedDate cached = sParsed[slot];
+        if (cached != null && cached.key == key && cached.zoneId.equals(zone.getID())) {
+            return cached.millis;
+        }
+
+        // Lenient like SimpleDateFormat, so 31 Feb is in March
+        Calendar calendar = getCalendar(zone);
+        calendar.clear();
+        calendar.set(year, month, day);
+        long millis = calendar.getTimeInMillis();
+        sParsed[slot] = new ParsedDate(key, zone.getID(), millis);
+        return millis;
+    }
+
+    /**
+     * The calendar of this thread, moved to the zone if the default time zone
+     * changed since it was last used
+     */
+    private static Calendar getCalendar(TimeZone zone) {
+        Calendar calendar = sCalendar.get();
+        if (!calendar.getTimeZone().getID().equals(zone.getID())) {
+            calendar.setTimeZone(zone);
+        }
+        return calendar;
+    }
+
+    /**
+     * For text that is not exactly in JobMine's form, such as a 2 digit year,
+     * let SimpleDateFormat decide like before. A new one is made each time
+     * since this rarely happens.
+     */
+    private static long parseSlowly(CharSequence text, int start, int end) {
+        String str = text.subSequence(start, end).toString();
+        String pattern = str.indexOf('-') != -1 ? "d-MMM-yyyy" : "d MMM yyyy";
+        try {
+            return new SimpleDateFormat(pattern, Locale.ENGLISH).parse(str).getTime();
+        } catch (ParseException e) {
+            e.printStackTrace();
+            return INVALID;
+        }
+    }
+
+    private static int hash(long value) {
+        int h = (int) (value ^ (value >>> 32));
+        return h ^ (h >>> 16) ^ (h >>> 7);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static final class ParsedDate {
+        final int key;
+        final String zoneId;
+        final long millis;
+
+        ParsedDate(int key, String zoneId, long millis) {
+            this.key = key;
+            this.zoneId = zoneId;
+            this.millis = millis;
+        }
+    }
+
+    private static final class FormattedDate {
+        final long millis;
+        final String zoneId;
+        final String text;
+
+        FormattedDate(long millis, String zoneId, String text) {
+            this.millis = millis;
+            this.zoneId = zoneId;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.jobmineplus.mobile.widgets;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import android.util.Log;
+
+/**
+ * Keeps the JobMine session of a client alive while the app is being used.
+ * Every KEEP_ALIVE_INTERVAL it checks how long ago the last request was and
+ * if the session is about to time out, it refreshes it in the background
+ * so that the next request does not land on the sign in page.
+ * Start it when an activity resumes and stop it when it pauses.
+ */
+final class SessionKeepAlive implements Runnable {
+    private static final long KEEP_ALIVE_INTERVAL   = 1000 * 60;        // 1 min
+    private static final long KEEP_ALIVE_MARGIN     = 1000 * 60 * 2;    // 2 min
+
+    private static final ScheduledExecutorService sScheduler =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "JbmnplsKeepAlive");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final JbmnplsHttpClient client;
+    private final long sessionLength;
+    private ScheduledFuture<?> future;
+
+    public SessionKeepAlive(JbmnplsHttpClient client, long sessionLength) {
+        this.client = client;
+        this.sessionLength = sessionLength;
+    }
+
+    public synchronized void start() {
+        if (future == null) {
+            future = sScheduler.scheduleWithFixedDelay(this, KEEP_ALIVE_INTERVAL,
+                    KEEP_ALIVE_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        // Only refresh a session that is still alive but will expire soon,
+        // the requests themselves will log in again if it already expired
+        if (!client.isLoggedIn()) {
+            return;
+        }
+        if (client.getSessionAge() < sessionLength - KEEP_ALIVE_MARGIN) {
+            return;
+        }
+        try {
+            if (!client.refreshSession()) {
+                Log.w("jbmnplsmbl", "Could not keep the session alive.");
+            }
+        } catch (RuntimeException e) {
+            // Never let the scheduler die because of one failed refresh
+            e.printStackTrace();
+        }
+    }
+}
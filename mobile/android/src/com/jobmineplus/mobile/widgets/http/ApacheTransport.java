@@ -0,0 +1,28 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+
+/**
+ * Sends the requests with an Apache HttpClient.
+ */
+public class ApacheTransport implements HttpTransport {
+    private final HttpClient client;
+
+    public ApacheTransport(HttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        return client.execute(request);
+    }
+
+    @Override
+    public void shutdown() {
+        client.getConnectionManager().shutdown();
+    }
+}
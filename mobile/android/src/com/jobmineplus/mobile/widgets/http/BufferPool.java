@@ -0,0 +1,45 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps a few char buffers around so that each request does not allocate
+ * its own while reading the response. Obtain a buffer before reading and
+ * recycle it when done; if the pool is empty a new one is created and if
+ * it is full the recycled buffer is left to the garbage collector.
+ */
+public final class BufferPool {
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ArrayList<char[]> buffers;
+
+    //===============
+    //  Constructor
+    //===============
+    public BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        buffers = new ArrayList<char[]>(maxPooled);
+    }
+
+    //==================
+    //  Public Methods
+    //==================
+    public synchronized char[] obtain() {
+        int size = buffers.size();
+        if (size == 0) {
+            return new char[bufferSize];
+        }
+        return buffers.remove(size - 1);
+    }
+
+    public synchronized void recycle(char[] buffer) {
+        if (buffer != null && buffer.length == bufferSize && buffers.size() < maxPooled) {
+            buffers.add(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,141 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.util.Random;
+
+import android.util.Log;
+
+/**
+ * Stops sending requests for a while when JobMine is down, slow or says it
+ * is offline. After enough failures in a row (or one offline page) it opens
+ * and every request is refused until the backoff is over. Then one request
+ * is let through as a probe: if it gets a response the breaker closes, if
+ * not the backoff doubles. JobMine answers with its offline page while it
+ * is down, so the backoff is only forgotten once a page was read while
+ * logged in (onRecovered), until then the next offline page doubles it.
+ * The backoff is jittered so that the app and the notifier service do not
+ * retry at the same moment.
+ * Share one breaker between all clients so they all see the same state.
+ */
+public final class CircuitBreaker {
+    private static final int FAILURE_THRESHOLD      = 3;
+    private static final long FAILURE_BACKOFF       = 1000 * 5;             // 5 sec
+    private static final long OFFLINE_BACKOFF       = 1000 * 60 * 5;        // 5 min
+    private static final long MAX_BACKOFF           = 1000 * 60 * 30;       // 30 min
+    private static final long SLOW_RESPONSE         = 1000 * 20;            // 20 sec
+
+    public static enum PERMIT { ALLOW, PROBE, REJECT }
+    private static enum STATE { CLOSED, OPEN, HALF_OPEN }
+
+    private final Random random = new Random();
+    private STATE state = STATE.CLOSED;
+    private int failures = 0;
+    private long backoff = 0;
+    private long openUntil = 0;
+
+    //==================
+    //  Public Methods
+    //==================
+    /**
+     * Asks if a request can be sent. When it returns PROBE, only this request
+     * is sent until it reports back with one of the on* methods.
+     * @return if the request can be sent
+     */
+    public synchronized PERMIT acquire() {
+        switch (state) {
+            case CLOSED:
+                return PERMIT.ALLOW;
+            case OPEN:
+                if (System.currentTimeMillis() >= openUntil) {
+                    state = STATE.HALF_OPEN;
+                    return PERMIT.PROBE;
+                }
+                return PERMIT.REJECT;
+            default:
+                return PERMIT.REJECT;
+        }
+    }
+
+    /**
+     * @return false if requests are being refused right now
+     */
+    public synchronized boolean isAvailable() {
+        return state == STATE.CLOSED
+                || state == STATE.OPEN && System.currentTimeMillis() >= openUntil;
+    }
+
+    /**
+     * @return milliseconds until requests will be tried again, 0 if they are
+     * not refused
+     */
+    public synchronized long getRetryDelay() {
+        if (state == STATE.CLOSED) {
+            return 0;
+        }
+        return Math.max(0, openUntil - System.currentTimeMillis());
+    }
+
+    /**
+     * A response came back, slow ones count as failures. This does not mean
+     * JobMine is back, it could be the offline page, so the backoff is kept.
+     * @param latency in milliseconds
+     */
+    public synchronized void onSuccess(long latency) {
+        if (latency > SLOW_RESPONSE) {
+            onFailure();
+            return;
+        }
+        if (state != STATE.CLOSED) {
+            Log.i("jbmnplsmbl", "JobMine answered, closing the circuit breaker.");
+        }
+        state = STATE.CLOSED;
+        failures = 0;
+    }
+
+    /**
+     * A page was read while logged in, JobMine is back so the backoff
+     * starts over.
+     */
+    public synchronized void onRecovered() {
+        state = STATE.CLOSED;
+        failures = 0;
+        backoff = 0;
+    }
+
+    public synchronized void onFailure() {
+        failures++;
+        if (state == STATE.HALF_OPEN || failures >= FAILURE_THRESHOLD) {
+            open(FAILURE_BACKOFF);
+        }
+    }
+
+    /**
+     * JobMine said it is offline, no need to wait for more failures.
+     */
+    public synchronized void onOffline() {
+        open(OFFLINE_BACKOFF);
+    }
+
+    /**
+     * The probe never finished (eg. it was aborted), let the next request
+     * probe instead.
+     */
+    public synchronized void onCancelled() {
+        if (state == STATE.HALF_OPEN) {
+            state = STATE.OPEN;
+            openUntil = 0;
+        }
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    private void open(long base) {
+        backoff = backoff == 0 ? base : Math.min(MAX_BACKOFF, Math.max(base, backoff * 2));
+
+        // Wait between half and all of the backoff
+        long delay = backoff / 2 + (long) (random.nextDouble() * (backoff / 2));
+        openUntil = System.currentTimeMillis() + delay;
+        state = STATE.OPEN;
+        Log.w("jbmnplsmbl", "JobMine is unavailable, waiting " + delay + " ms before trying again.");
+    }
+}
@@ -0,0 +1,87 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.io.IOException;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import com.jobmineplus.mobile.exceptions.JbmnplsUnavailableException;
+
+/**
+ * Sends the requests through another transport while the circuit breaker
+ * allows it and tells the breaker how each one went. When the breaker asks
+ * for a probe, a HEAD request is sent first so that only the headers are
+ * downloaded to see if JobMine answers. Whether it is really back is only
+ * known once the page is read, see CircuitBreaker.onRecovered().
+ */
+public class CircuitBreakerTransport implements HttpTransport {
+    private final HttpTransport transport;
+    private final CircuitBreaker breaker;
+
+    public CircuitBreakerTransport(HttpTransport transport, CircuitBreaker breaker) {
+        this.transport = transport;
+        this.breaker = breaker;
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        switch (breaker.acquire()) {
+            case REJECT:
+                throw new JbmnplsUnavailableException(breaker.getRetryDelay());
+            case PROBE:
+                if (!probe(request)) {
+                    throw new JbmnplsUnavailableException(breaker.getRetryDelay());
+                }
+                break;
+            default:
+                break;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            HttpResponse response = transport.execute(request);
+            record(response, System.currentTimeMillis() - start);
+            return response;
+        } catch (IOException e) {
+            if (!request.isAborted()) {
+                breaker.onFailure();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        transport.shutdown();
+    }
+
+    private boolean probe(HttpUriRequest request) {
+        HttpHead head = new HttpHead(request.getURI());
+        long start = System.currentTimeMillis();
+        try {
+            HttpResponse response = transport.execute(head);
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                entity.consumeContent();
+            }
+            record(response, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            e.printStackTrace();
+            breaker.onFailure();
+        } catch (RuntimeException e) {
+            breaker.onCancelled();
+            throw e;
+        }
+        return breaker.isAvailable();
+    }
+
+    private void record(HttpResponse response, long latency) {
+        if (response.getStatusLine().getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess(latency);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the number of bytes read through the stream.
+ */
+public class CountingInputStream extends FilterInputStream {
+    private long count = 0;
+
+    public CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int result = super.read();
+        if (result != -1) {
+            count++;
+        }
+        return result;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int result = super.read(buffer, offset, length);
+        if (result > 0) {
+            count += result;
+        }
+        return result;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long result = super.skip(n);
+        count += result;
+        return result;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -0,0 +1,153 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Wraps a response entity so that its content is decompressed while it is
+ * read if the server sent it with gzip or deflate encoding. Both the bytes
+ * that came over the network and the bytes after decompression are counted,
+ * the request that reads the content can ask for them when it is done.
+ * Use DecompressingEntity.enable(client) to ask for compressed responses on
+ * every request of that client.
+ */
+public class DecompressingEntity extends HttpEntityWrapper {
+    public static final String ACCEPT_ENCODING  = "Accept-Encoding";
+    public static final String GZIP             = "gzip";
+    public static final String DEFLATE          = "deflate";
+
+    private static final int ZLIB_HEADER        = 0x78;
+
+    private final String encoding;
+    private CountingInputStream received;
+    private CountingInputStream content;
+
+    public DecompressingEntity(HttpEntity entity, String encoding) {
+        super(entity);
+        this.encoding = encoding;
+    }
+
+    /**
+     * Adds the interceptors to the client that ask for gzip/deflate and
+     * decompress (and count) every response.
+     * @param client
+     */
+    public static void enable(DefaultHttpClient client) {
+        client.addRequestInterceptor(new HttpRequestInterceptor() {
+            @Override
+            public void process(HttpRequest request, HttpContext context)
+                    throws HttpException, IOException {
+                if (!request.containsHeader(ACCEPT_ENCODING)) {
+                    request.addHeader(ACCEPT_ENCODING, GZIP + ", " + DEFLATE);
+                }
+            }
+        });
+        client.addResponseInterceptor(new HttpResponseInterceptor() {
+            @Override
+            public void process(HttpResponse response, HttpContext context)
+                    throws HttpException, IOException {
+                HttpEntity entity = response.getEntity();
+                if (entity == null) {
+                    return;
+                }
+                String encoding = null;
+                Header header = entity.getContentEncoding();
+                if (header != null) {
+                    encoding = header.getValue().trim().toLowerCase(Locale.ENGLISH);
+                    if (!encoding.equals(GZIP) && !encoding.equals(DEFLATE)) {
+                        return;     // Unknown encoding, leave it alone
+                    }
+                }
+                response.setEntity(new DecompressingEntity(entity, encoding));
+            }
+        });
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        if (content == null) {
+            received = new CountingInputStream(wrappedEntity.getContent());
+            InputStream in = received;
+            if (GZIP.equals(encoding)) {
+                in = new GZIPInputStream(received);
+            } else if (DEFLATE.equals(encoding)) {
+                in = inflate(received);
+            }
+            content = new CountingInputStream(in);
+        }
+        return content;
+    }
+
+    /**
+     * @return bytes of the content that came over the network so far
+     */
+    public long getReceivedLength() {
+        return received == null ? 0 : received.getCount();
+    }
+
+    /**
+     * @return bytes of the content read after decompression so far
+     */
+    public long getDecodedLength() {
+        return content == null ? 0 : content.getCount();
+    }
+
+    @Override
+    public Header getContentEncoding() {
+        return encoding == null ? super.getContentEncoding() : null;
+    }
+
+    @Override
+    public long getContentLength() {
+        return encoding == null ? super.getContentLength() : -1;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        InputStream in = getContent();
+        try {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Servers are inconsistent with deflate, some send zlib data and others
+     * send raw deflate data without the header. Peek at the first byte to
+     * find out which one it is.
+     * @param in
+     * @return inflating stream
+     * @throws IOException
+     */
+    private static InputStream inflate(InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, 1);
+        int first = pushback.read();
+        if (first == -1) {
+            return pushback;
+        }
+        pushback.unread(first);
+        return new InflaterInputStream(pushback, new Inflater(first != ZLIB_HEADER));
+    }
+}
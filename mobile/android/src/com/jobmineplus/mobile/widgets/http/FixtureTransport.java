@@ -0,0 +1,211 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.message.BasicHttpResponse;
+
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient;
+
+/**
+ * Answers requests with html files instead of going to JobMine, so that
+ * logging in, crawling, parsing and saving can be timed without a network.
+ * Each url is served a file from the directory, every other url gets a 404.
+ * Logging in always works. The latency is how long it waits before the
+ * response comes back and the bandwidth limits how fast the body is read.
+ * This is thread safe once the pages are set up.
+ */
+public class FixtureTransport implements HttpTransport, HttpTransport.Factory {
+    private static final String HTML_TYPE = "text/html; charset=UTF-8";
+    private static final String LOGGED_IN_HTML = "<html><head><title>JobMine</title></head><body></body></html>";
+
+    private final File directory;
+    private final HashMap<String, byte[]> pages = new HashMap<String, byte[]>();
+    private volatile long latency = 0;
+    private volatile int bandwidth = 0;
+
+    //===============
+    //  Constructor
+    //===============
+    public FixtureTransport(File directory) {
+        this.directory = directory;
+        try {
+            pages.put(JbmnplsHttpClient.POST_LINKS.LOGIN, LOGGED_IN_HTML.getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Serves the pages like the test server does when it starts: the first
+     * file (by name) of each page is used, eg. "applications-both-employed.html"
+     * for the applications page.
+     * @param directory test-sever/pages/files
+     * @return the transport
+     * @throws IOException
+     */
+    public static FixtureTransport fromTestServer(File directory) throws IOException {
+        FixtureTransport transport = new FixtureTransport(directory);
+        String[] files = directory.list();
+        if (files == null) {
+            throw new IOException("Cannot list " + directory);
+        }
+        Arrays.sort(files);
+        String[][] links = {
+            {"applications", JbmnplsHttpClient.GET_LINKS.APPLICATIONS},
+            {"interviews", JbmnplsHttpClient.GET_LINKS.INTERVIEWS},
+            {"search", JbmnplsHttpClient.GET_LINKS.SEARCH},
+            {"shortlist", JbmnplsHttpClient.GET_LINKS.SHORTLIST},
+        };
+        for (String[] link : links) {
+            for (String file : files) {
+                if (file.startsWith(link[0] + "-")) {
+                    transport.serve(link[1], file);
+                    break;
+                }
+            }
+        }
+        return transport;
+    }
+
+    //==================
+    //  Public Methods
+    //==================
+    /**
+     * Serves the file to every GET and POST sent to the url.
+     * @param url
+     * @param fileName in the directory
+     * @throws IOException
+     */
+    public synchronized void serve(String url, String fileName) throws IOException {
+        File file = new File(directory, fileName);
+        byte[] data = new byte[(int) file.length()];
+        InputStream in = new FileInputStream(file);
+        try {
+            int read, offset = 0;
+            while (offset < data.length && (read = in.read(data, offset, data.length - offset)) != -1) {
+                offset += read;
+            }
+        } finally {
+            in.close();
+        }
+        pages.put(url, data);
+    }
+
+    public void setLatency(long millis) {
+        latency = millis;
+    }
+
+    /**
+     * @param bytesPerSecond, 0 for no limit
+     */
+    public void setBandwidth(int bytesPerSecond) {
+        bandwidth = bytesPerSecond;
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        byte[] data;
+        synchronized (this) {
+            data = pages.get(request.getURI().toString());
+        }
+        sleep(latency);
+        BasicHttpResponse response;
+        if (data == null) {
+            response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_NOT_FOUND, "Not Found");
+            data = new byte[0];
+        } else {
+            response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        }
+        BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(new ThrottledInputStream(new ByteArrayInputStream(data), bandwidth));
+        entity.setContentLength(data.length);
+        entity.setContentType(HTML_TYPE);
+        response.setEntity(entity);
+        return response;
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    /**
+     * The pages do not change and there are no cookies, so every client
+     * can share this transport.
+     */
+    @Override
+    public HttpTransport create() {
+        return this;
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    //=======================
+    //  Throttled Download
+    //=======================
+    /**
+     * Sleeps while reading so that the bytes come in no faster than the
+     * bandwidth.
+     */
+    private static final class ThrottledInputStream extends FilterInputStream {
+        private final int bandwidth;
+        private final long start = System.nanoTime();
+        private long count = 0;
+
+        public ThrottledInputStream(InputStream in, int bandwidth) {
+            super(in);
+            this.bandwidth = bandwidth;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                throttle(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                throttle(read);
+            }
+            return read;
+        }
+
+        private void throttle(int read) throws InterruptedIOException {
+            if (bandwidth <= 0) {
+                return;
+            }
+            count += read;
+            long due = count * 1000 / bandwidth;
+            long elapsed = (System.nanoTime() - start) / 1000000;
+            sleep(due - elapsed);
+        }
+    }
+}
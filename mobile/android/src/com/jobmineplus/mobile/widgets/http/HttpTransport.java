@@ -0,0 +1,34 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+
+/**
+ * What JbmnplsHttpClient sends its requests through. The app uses
+ * ApacheTransport to talk to JobMine, FixtureTransport answers with saved
+ * pages so the client can be run without a network.
+ */
+public interface HttpTransport {
+    /**
+     * Sends the request and returns once the response headers arrived, the
+     * body is read from the response's entity.
+     * @param request
+     * @return the response
+     * @throws IOException
+     */
+    public HttpResponse execute(HttpUriRequest request) throws IOException;
+
+    /**
+     * Closes any open connections, the transport is not used after this.
+     */
+    public void shutdown();
+
+    /**
+     * Creates a new transport with no cookies each time the client logs in.
+     */
+    public interface Factory {
+        public HttpTransport create();
+    }
+}
@@ -0,0 +1,189 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Looks for several strings at once while html is being read, in one pass
+ * over each character (Aho-Corasick). The markers can be anywhere in the
+ * html and can be split between two chunks because the position in the
+ * markers is kept between calls to Matcher.scan.
+ * Build one scanner for a set of markers and keep it, then use a new
+ * Matcher for every response.
+ * Only ASCII markers are supported, at most 32 of them.
+ */
+public final class MarkerScanner {
+    private static final int ASCII = 128;
+
+    private final int markerCount;
+    private final int[] lengths;
+    private final byte[] alphabet = new byte[ASCII];
+    private final int[][] next;
+    private final int[] found;
+
+    //===============
+    //  Constructor
+    //===============
+    public MarkerScanner(String... markers) {
+        if (markers.length == 0 || markers.length > 32) {
+            throw new IllegalArgumentException("Need between 1 and 32 markers.");
+        }
+        markerCount = markers.length;
+        lengths = new int[markers.length];
+
+        // Only characters in the markers need a column, the rest share 0
+        int letters = 1;
+        for (String marker : markers) {
+            for (int i = 0; i < marker.length(); i++) {
+                char c = marker.charAt(i);
+                if (c >= ASCII) {
+                    throw new IllegalArgumentException("Markers must be ASCII: " + marker);
+                }
+                if (alphabet[c] == 0) {
+                    alphabet[c] = (byte) letters++;
+                }
+            }
+        }
+
+        // Build the trie
+        ArrayList<int[]> trie = new ArrayList<int[]>();
+        ArrayList<Integer> output = new ArrayList<Integer>();
+        trie.add(newRow(letters));
+        output.add(0);
+        for (int m = 0; m < markers.length; m++) {
+            int state = 0;
+            String marker = markers[m];
+            lengths[m] = marker.length();
+            for (int i = 0; i < marker.length(); i++) {
+                int letter = alphabet[marker.charAt(i)];
+                if (trie.get(state)[letter] == -1) {
+                    trie.get(state)[letter] = trie.size();
+                    trie.add(newRow(letters));
+                    output.add(0);
+                }
+                state = trie.get(state)[letter];
+            }
+            output.set(state, output.get(state) | (1 << m));
+        }
+
+        // Turn it into a state machine by following the failure links
+        next = trie.toArray(new int[trie.size()][]);
+        found = new int[next.length];
+        int[] fail = new int[next.length];
+        int[] queue = new int[next.length];
+        int head = 0, tail = 0;
+        for (int letter = 0; letter < letters; letter++) {
+            if (next[0][letter] == -1) {
+                next[0][letter] = 0;
+            } else {
+                queue[tail++] = next[0][letter];
+            }
+        }
+        found[0] = output.get(0);
+        while (head < tail) {
+            int state = queue[head++];
+            found[state] = output.get(state) | found[fail[state]];
+            for (int letter = 0; letter < letters; letter++) {
+                int child = next[state][letter];
+                if (child == -1) {
+                    next[state][letter] = next[fail[state]][letter];
+                } else {
+                    fail[child] = next[fail[state]][letter];
+                    queue[tail++] = child;
+                }
+            }
+        }
+    }
+
+    //==================
+    //  Public Methods
+    //==================
+    public Matcher matcher() {
+        return new Matcher();
+    }
+
+    public int getMarkerCount() {
+        return markerCount;
+    }
+
+    /**
+     * Finds where each marker first appears in the text in one pass, stops
+     * once every marker was seen.
+     * @param text
+     * @param from
+     * @return the index of each marker like String.indexOf, -1 if not found
+     */
+    public int[] indexOfAll(CharSequence text, int from) {
+        int[] indices = new int[markerCount];
+        Arrays.fill(indices, -1);
+        int all = markerCount == 32 ? -1 : (1 << markerCount) - 1;
+        int s = 0, seen = 0;
+        int length = text.length();
+        for (int i = Math.max(0, from); i < length && seen != all; i++) {
+            char c = text.charAt(i);
+            s = next[s][c < ASCII ? alphabet[c] : 0];
+            int matches = found[s] & ~seen;
+            if (matches != 0) {
+                for (int m = 0; m < markerCount; m++) {
+                    if ((matches & (1 << m)) != 0) {
+                        indices[m] = i + 1 - lengths[m];
+                    }
+                }
+                seen |= matches;
+            }
+        }
+        return indices;
+    }
+
+    private static int[] newRow(int letters) {
+        int[] row = new int[letters];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    //===========
+    //  Matcher
+    //===========
+    /**
+     * Scans one response, not thread safe.
+     */
+    public final class Matcher {
+        private int state = 0;
+        private int matches = 0;
+
+        private Matcher() {
+        }
+
+        /**
+         * Continues scanning with the next chunk of html.
+         * @param buffer
+         * @param offset
+         * @param length
+         * @return true if any marker was found so far
+         */
+        public boolean scan(char[] buffer, int offset, int length) {
+            int s = state, m = matches;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                char c = buffer[i];
+                s = next[s][c < ASCII ? alphabet[c] : 0];
+                m |= found[s];
+            }
+            state = s;
+            matches = m;
+            return m != 0;
+        }
+
+        /**
+         * @param marker index of the marker passed to the constructor
+         * @return true if the marker was found
+         */
+        public boolean hasFound(int marker) {
+            return (matches & (1 << marker)) != 0;
+        }
+
+        public boolean hasFoundAny() {
+            return matches != 0;
+        }
+    }
+}
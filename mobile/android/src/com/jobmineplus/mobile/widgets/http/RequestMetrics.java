@@ -0,0 +1,285 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects timing and size numbers for each JobMine endpoint so we can see
+ * where the time of a crawl goes. Nothing here takes a lock, so recording
+ * from many request threads at once is cheap.
+ * Every request gets a Sample from its Endpoint, the sample is filled in
+ * while the request runs and added to the endpoint's numbers when it is
+ * finished. Use dump() to print everything.
+ */
+public final class RequestMetrics {
+    private final ConcurrentHashMap<String, Endpoint> endpoints =
+            new ConcurrentHashMap<String, Endpoint>();
+
+    //==================
+    //  Public Methods
+    //==================
+    public Endpoint get(String name) {
+        Endpoint endpoint = endpoints.get(name);
+        if (endpoint == null) {
+            Endpoint created = new Endpoint(name);
+            endpoint = endpoints.putIfAbsent(name, created);
+            if (endpoint == null) {
+                endpoint = created;
+            }
+        }
+        return endpoint;
+    }
+
+    public void clear() {
+        endpoints.clear();
+    }
+
+    /**
+     * @return every endpoint's numbers, one endpoint per line
+     */
+    public String dump() {
+        ArrayList<String> names = new ArrayList<String>(endpoints.keySet());
+        Collections.sort(names);
+        StringBuilder sb = new StringBuilder();
+        for (String name : names) {
+            sb.append(endpoints.get(name)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    //============
+    //  Endpoint
+    //============
+    public static final class Endpoint {
+        public final String name;
+        public final Histogram firstByte = new Histogram();
+        public final Histogram total = new Histogram();
+        public final Histogram parse = new Histogram();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong bodyLength = new AtomicLong();
+        private final AtomicLong bytesReceived = new AtomicLong();
+        private final AtomicLong bytesDecoded = new AtomicLong();
+        private final AtomicLong loginRetries = new AtomicLong();
+        private final AtomicLong aborts = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        private Endpoint(String name) {
+            this.name = name;
+        }
+
+        public Sample start() {
+            return new Sample(this);
+        }
+
+        public void recordParse(long millis) {
+            parse.record(millis);
+        }
+
+        public long getRequests() {
+            return requests.get();
+        }
+
+        public long getBodyLength() {
+            return bodyLength.get();
+        }
+
+        /**
+         * @return bytes that came over the network, compressed
+         */
+        public long getBytesReceived() {
+            return bytesReceived.get();
+        }
+
+        /**
+         * @return bytes after decompression
+         */
+        public long getBytesDecoded() {
+            return bytesDecoded.get();
+        }
+
+        public long getLoginRetries() {
+            return loginRetries.get();
+        }
+
+        public long getAborts() {
+            return aborts.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        @Override
+        public String toString() {
+            return name + ": requests=" + requests.get()
+                    + " chars=" + bodyLength.get()
+                    + " received=" + bytesReceived.get()
+                    + " decoded=" + bytesDecoded.get()
+                    + " retries=" + loginRetries.get()
+                    + " aborts=" + aborts.get()
+                    + " failures=" + failures.get()
+                    + " firstByte[" + firstByte + "]"
+                    + " total[" + total + "]"
+                    + " parse[" + parse + "]";
+        }
+    }
+
+    //==========
+    //  Sample
+    //==========
+    /**
+     * The numbers of one request, only used by the thread running it.
+     */
+    public static final class Sample {
+        private final Endpoint endpoint;
+        private final long start = System.nanoTime();
+        private long firstByte = -1;
+        private long length = 0;
+        private long received = 0;
+        private long decoded = 0;
+        private long parseNanos = 0;
+        private int retries = 0;
+
+        private Sample(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        /**
+         * Call when the response headers arrived.
+         */
+        public void onFirstByte() {
+            firstByte = System.nanoTime() - start;
+        }
+
+        public void onRetry() {
+            retries++;
+        }
+
+        public void addBody(int length) {
+            this.length += length;
+        }
+
+        /**
+         * Adds the bytes of one response, every try of the request counts.
+         * @param received bytes that came over the network
+         * @param decoded bytes after decompression
+         */
+        public void addTransfer(long received, long decoded) {
+            this.received += received;
+            this.decoded += decoded;
+        }
+
+        public void addParseTime(long nanos) {
+            parseNanos += nanos;
+        }
+
+        /**
+         * Call when the whole response was read.
+         */
+        public void finish() {
+            long now = System.nanoTime();
+            endpoint.requests.incrementAndGet();
+            endpoint.bodyLength.addAndGet(length);
+            endpoint.bytesReceived.addAndGet(received);
+            endpoint.bytesDecoded.addAndGet(decoded);
+            endpoint.loginRetries.addAndGet(retries);
+            if (firstByte != -1) {
+                endpoint.firstByte.record(firstByte / 1000000);
+            }
+            endpoint.total.record((now - start) / 1000000);
+            if (parseNanos > 0) {
+                endpoint.parse.record(parseNanos / 1000000);
+            }
+        }
+
+        /**
+         * Call when the request did not finish.
+         * @param aborted true if it was aborted instead of failing
+         */
+        public void fail(boolean aborted) {
+            endpoint.bytesReceived.addAndGet(received);
+            endpoint.bytesDecoded.addAndGet(decoded);
+            endpoint.loginRetries.addAndGet(retries);
+            if (aborted) {
+                endpoint.aborts.incrementAndGet();
+            } else {
+                endpoint.failures.incrementAndGet();
+            }
+        }
+    }
+
+    //=============
+    //  Histogram
+    //=============
+    /**
+     * Counts values in power of two buckets: [0, 1), [1, 2), [2, 4), ... so
+     * percentiles are only accurate to a factor of 2, which is enough to
+     * tell a 50 ms page from a 2 s one.
+     */
+    public static final class Histogram {
+        private static final int BUCKETS = 32;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            long current;
+            while (value > (current = max.get())) {
+                if (max.compareAndSet(current, value)) {
+                    break;
+                }
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public long getMean() {
+            long n = count.get();
+            return n == 0 ? 0 : sum.get() / n;
+        }
+
+        /**
+         * @param percent between 0 and 100
+         * @return the upper bound of the bucket that holds the percentile
+         */
+        public long getPercentile(double percent) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(n * percent / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(1L << i, max.get());
+                }
+            }
+            return max.get();
+        }
+
+        @Override
+        public String toString() {
+            return "n=" + getCount() + " mean=" + getMean() + " p50=" + getPercentile(50)
+                    + " p90=" + getPercentile(90) + " max=" + getMax() + " ms";
+        }
+    }
+}
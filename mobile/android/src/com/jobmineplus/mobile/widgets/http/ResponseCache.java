@@ -0,0 +1,147 @@
+package com.jobmineplus.mobile.widgets.http;
+
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Remembers what each page looked like the last time it was downloaded so
+ * that the next request can tell if it changed. For every url and username
+ * it keeps the ETag and Last-Modified headers (if the server sent them) and
+ * a fingerprint of the html. JobMine sends neither header, so in practice the
+ * fingerprint is what finds the pages that did not change.
+ */
+public class ResponseCache {
+    // FNV-1a 64 bit
+    private static final long FINGERPRINT_START = 0xcbf29ce484222325L;
+    private static final long FINGERPRINT_PRIME = 0x100000001b3L;
+
+    private final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+
+    public synchronized Entry get(String username, String url) {
+        return entries.get(getKey(username, url));
+    }
+
+    public synchronized void put(String username, String url, Entry entry) {
+        entries.put(getKey(username, url), entry);
+    }
+
+    public synchronized void remove(String username, String url) {
+        entries.remove(getKey(username, url));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static String getKey(String username, String url) {
+        return username + " " + url;
+    }
+
+    //===============
+    //  Fingerprint
+    //===============
+    /**
+     * FNV-1a hash of a page read in chunks. The hidden <input> fields are left
+     * out because PeopleSoft changes ICStateNum, ICSID and ICElementNum on
+     * every request, even when the rest of the page is the same.
+     */
+    public static final class Fingerprint {
+        private static final String INPUT = "<input";
+        private static final int MAX_TAG_LENGTH = 1024;
+
+        // The start of a tag that may be an input, or the whole input tag
+        private final StringBuilder tag = new StringBuilder();
+        private boolean inInput = false;
+        private long hash = FINGERPRINT_START;
+        private long length = 0;
+
+        public void update(char[] buffer, int offset, int length) {
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                char c = buffer[i];
+                if (inInput) {
+                    tag.append(c);
+                    if (c == '>' || tag.length() > MAX_TAG_LENGTH) {
+                        endInput();
+                    }
+                    continue;
+                }
+                if (tag.length() > 0) {
+                    if (Character.toLowerCase(c) == INPUT.charAt(tag.length())) {
+                        tag.append(c);
+                        inInput = tag.length() == INPUT.length();
+                        continue;
+                    }
+                    flushTag();
+                }
+                if (c == '<') {
+                    tag.append(c);
+                } else {
+                    add(c);
+                }
+            }
+        }
+
+        /**
+         * @return the hash of the page, call this after all of it was read
+         */
+        public long getHash() {
+            flushTag();
+            return hash;
+        }
+
+        /**
+         * @return the number of characters in the hash
+         */
+        public long getLength() {
+            flushTag();
+            return length;
+        }
+
+        private void endInput() {
+            String text = tag.toString().toLowerCase(Locale.ENGLISH);
+            if (text.contains("type=\"hidden\"") || text.contains("type='hidden'")
+                    || text.contains("type=hidden")) {
+                tag.setLength(0);
+            } else {
+                flushTag();
+            }
+            inInput = false;
+        }
+
+        private void flushTag() {
+            for (int i = 0; i < tag.length(); i++) {
+                add(tag.charAt(i));
+            }
+            tag.setLength(0);
+            inInput = false;
+        }
+
+        private void add(char c) {
+            hash ^= c;
+            hash *= FINGERPRINT_PRIME;
+            length++;
+        }
+    }
+
+    //=========
+    //  Entry
+    //=========
+    public static final class Entry {
+        public final String etag;
+        public final String lastModified;
+        public final long fingerprint;
+        public final long length;
+
+        public Entry(String etag, String lastModified, long fingerprint, long length) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fingerprint = fingerprint;
+            this.length = length;
+        }
+
+        public boolean isSameContent(long fingerprint, long length) {
+            return this.fingerprint == fingerprint && this.length == length;
+        }
+    }
+}
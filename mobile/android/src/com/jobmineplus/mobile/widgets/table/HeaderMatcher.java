@@ -0,0 +1,203 @@
+package com.jobmineplus.mobile.widgets.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.jobmineplus.mobile.exceptions.HiddenColumnsException;
+import com.jobmineplus.mobile.widgets.Job.HEADER;
+
+/**
+ * Picks the outline that fits the header row of a table. The names of all
+ * the headers are put in a trie once, so a header cell is matched while
+ * walking its text in the html (lowercase and with double spaces made
+ * single like before) instead of making a String for it. The headers of a
+ * table's outlines are put in a second trie so that choosing between them
+ * is a single walk over the header row.
+ * Use get(outlines) which keeps the matcher of each table.
+ */
+final class HeaderMatcher {
+    private static final int ASCII = 128;
+    private static final ConcurrentHashMap<String, HeaderMatcher> sMatchers =
+            new ConcurrentHashMap<String, HeaderMatcher>();
+
+    // Trie of the header names
+    private static final byte[] sAlphabet = new byte[ASCII];
+    private static final int[][] sNameNext;
+    private static final HEADER[] sNameHeader;
+
+    static {
+        HEADER[] headers = HEADER.values();
+        int letters = 1;
+        for (HEADER header : headers) {
+            String name = header.toString();
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c < ASCII && sAlphabet[c] == 0) {
+                    sAlphabet[c] = (byte) letters++;
+                }
+            }
+        }
+
+        ArrayList<int[]> trie = new ArrayList<int[]>();
+        ArrayList<HEADER> terminal = new ArrayList<HEADER>();
+        trie.add(newRow(letters));
+        terminal.add(null);
+        nextHeader:
+        for (HEADER header : headers) {
+            String name = header.toString();
+            int state = 0;
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c >= ASCII) {
+                    // match() never walks past a character like this, leave it out
+                    continue nextHeader;
+                }
+                int letter = sAlphabet[c];
+                if (trie.get(state)[letter] == -1) {
+                    trie.get(state)[letter] = trie.size();
+                    trie.add(newRow(letters));
+                    terminal.add(null);
+                }
+                state = trie.get(state)[letter];
+            }
+            terminal.set(state, header);
+        }
+        sNameNext = trie.toArray(new int[trie.size()][]);
+        sNameHeader = terminal.toArray(new HEADER[terminal.size()]);
+    }
+
+    private final TableParserOutline[] outlines;
+
+    // Trie of the outlines' headers
+    private final int[][] next;
+    private final int[] count;
+    private final TableParserOutline[] last;
+
+    //===============
+    //  Constructor
+    //===============
+    private HeaderMatcher(TableParserOutline[] outlines) {
+        this.outlines = outlines;
+        int columns = HEADER.values().length;
+
+        ArrayList<int[]> trie = new ArrayList<int[]>();
+        trie.add(newRow(columns));
+        for (TableParserOutline outline : outlines) {
+            int state = 0;
+            for (HEADER header : outline.getHeaders()) {
+                int column = header.ordinal();
+                if (trie.get(state)[column] == -1) {
+                    trie.get(state)[column] = trie.size();
+                    trie.add(newRow(columns));
+                }
+                state = trie.get(state)[column];
+            }
+        }
+        next = trie.toArray(new int[trie.size()][]);
+
+        // Count the outlines that go through each state and remember the last one
+        count = new int[next.length];
+        last = new TableParserOutline[next.length];
+        for (TableParserOutline outline : outlines) {
+            int state = 0;
+            count[state]++;
+            last[state] = outline;
+            for (HEADER header : outline.getHeaders()) {
+                state = next[state][header.ordinal()];
+                count[state]++;
+                last[state] = outline;
+            }
+        }
+    }
+
+    //==================
+    //  Public Methods
+    //==================
+    /**
+     * @param outlines of the same table
+     * @return the matcher for the outlines, only built the first time
+     */
+    public static HeaderMatcher get(TableParserOutline[] outlines) {
+        String tableId = outlines[0].getTableId();
+        HeaderMatcher matcher = sMatchers.get(tableId);
+        if (matcher == null || !Arrays.equals(matcher.outlines, outlines)) {
+            matcher = new HeaderMatcher(outlines.clone());
+            sMatchers.put(tableId, matcher);
+        }
+        return matcher;
+    }
+
+    /**
+     * Finds the header that has the same name as the tokenizer's cell
+     * @param tokenizer
+     * @return the header or null if none have that name
+     */
+    public static HEADER match(TableTokenizer tokenizer) {
+        int state = 0;
+        int length = tokenizer.length();
+        for (int i = 0; i < length && state != -1; i++) {
+            char c = tokenizer.charAt(i);
+            if (c == ' ' && i + 1 < length && tokenizer.charAt(i + 1) == ' ') {
+                i++;
+            } else if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            state = c < ASCII && sAlphabet[c] != 0 ? sNameNext[state][sAlphabet[c]] : -1;
+        }
+        return state == -1 ? null : sNameHeader[state];
+    }
+
+    /**
+     * Reads the header cells from the tokenizer and returns the outline that
+     * matches them. The end is the position where the header row finishes.
+     * A single outline must match each of its headers, with several outlines
+     * the headers are read till only one of them is left.
+     * @param tokenizer
+     * @param end
+     * @return the outline to parse the table with
+     */
+    public TableParserOutline select(TableTokenizer tokenizer, int end) {
+        if (outlines.length == 1) {
+            // See if each header matches
+            HEADER[] headers = outlines[0].getHeaders();
+            for (int i = 0; i < headers.length; i++) {
+                tokenizer.nextCell();
+                if (tokenizer.getPosition() >= end) {
+                    throw new HiddenColumnsException("Outline has more columns than html");
+                }
+                if (match(tokenizer) != headers[i]) {
+                    throw new HiddenColumnsException("Outline does not match html");
+                }
+            }
+            return outlines[0];
+        }
+
+        // Follow the headers of the html till only one outline fits
+        int state = 0;
+        while (count[state] > 1) {
+            tokenizer.nextCell();
+            if (tokenizer.getPosition() >= end) { // Not enough headers in html
+                break;
+            }
+            HEADER header = match(tokenizer);
+            state = header == null ? -1 : next[state][header.ordinal()];
+            if (state == -1) {
+                break;
+            }
+        }
+        if (state == -1 || count[state] != 1) {
+            throw new HiddenColumnsException("Cannot find a suitable outline to parse table.");
+        }
+        return last[state];
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    private static int[] newRow(int letters) {
+        int[] row = new int[letters];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -1,10 +1,61 @@
 package com.jobmineplus.mobile.widgets.table;
 
+import java.util.TreeMap;
+
 import android.util.Pair;
 
 import com.jobmineplus.mobile.exceptions.JbmnplsParsingException;
 
 public class SimpleHtmlParser {
+    private static final char NBSP = '\u00a0';
+    private static final int MAX_ENTITY_LENGTH = 10;    // Longest is "&#x10FFFF;"
+
+    // Named entities sorted by name, filled in below
+    private static final String[] ENTITY_NAMES;
+    private static final char[] ENTITY_CHARS;
+
+    static {
+        // The names of the characters from 160 to 255 in order
+        String[] latin1 = {
+            "nbsp", "iexcl", "cent", "pound", "curren", "yen", "brvbar", "sect",
+            "uml", "copy", "ordf", "laquo", "not", "shy", "reg", "macr",
+            "deg", "plusmn", "sup2", "sup3", "acute", "micro", "para", "middot",
+            "cedil", "sup1", "ordm", "raquo", "frac14", "frac12", "frac34", "iquest",
+            "Agrave", "Aacute", "Acirc", "Atilde", "Auml", "Aring", "AElig", "Ccedil",
+            "Egrave", "Eacute", "Ecirc", "Euml", "Igrave", "Iacute", "Icirc", "Iuml",
+            "ETH", "Ntilde", "Ograve", "Oacute", "Ocirc", "Otilde", "Ouml", "times",
+            "Oslash", "Ugrave", "Uacute", "Ucirc", "Uuml", "Yacute", "THORN", "szlig",
+            "agrave", "aacute", "acirc", "atilde", "auml", "aring", "aelig", "ccedil",
+            "egrave", "eacute", "ecirc", "euml", "igrave", "iacute", "icirc", "iuml",
+            "eth", "ntilde", "ograve", "oacute", "ocirc", "otilde", "ouml", "divide",
+            "oslash", "ugrave", "uacute", "ucirc", "uuml", "yacute", "thorn", "yuml"
+        };
+        Object[][] others = {
+            {"quot", '"'}, {"amp", '&'}, {"apos", '\''}, {"lt", '<'}, {"gt", '>'},
+            {"OElig", '\u0152'}, {"oelig", '\u0153'}, {"Scaron", '\u0160'}, {"scaron", '\u0161'},
+            {"Yuml", '\u0178'}, {"fnof", '\u0192'}, {"circ", '\u02c6'}, {"tilde", '\u02dc'},
+            {"ensp", '\u2002'}, {"emsp", '\u2003'}, {"thinsp", '\u2009'}, {"zwnj", '\u200c'},
+            {"zwj", '\u200d'}, {"lrm", '\u200e'}, {"rlm", '\u200f'}, {"ndash", '\u2013'},
+            {"mdash", '\u2014'}, {"lsquo", '\u2018'}, {"rsquo", '\u2019'}, {"sbquo", '\u201a'},
+            {"ldquo", '\u201c'}, {"rdquo", '\u201d'}, {"bdquo", '\u201e'}, {"dagger", '\u2020'},
+            {"Dagger", '\u2021'}, {"bull", '\u2022'}, {"hellip", '\u2026'}, {"permil", '\u2030'},
+            {"prime", '\u2032'}, {"Prime", '\u2033'}, {"lsaquo", '\u2039'}, {"rsaquo", '\u203a'},
+            {"oline", '\u203e'}, {"frasl", '\u2044'}, {"euro", '\u20ac'}, {"trade", '\u2122'}
+        };
+        TreeMap<String, Character> entities = new TreeMap<String, Character>();
+        for (int i = 0; i < latin1.length; i++) {
+            entities.put(latin1[i], (char) (NBSP + i));
+        }
+        for (Object[] entity : others) {
+            entities.put((String) entity[0], (Character) entity[1]);
+        }
+        ENTITY_NAMES = entities.keySet().toArray(new String[entities.size()]);
+        ENTITY_CHARS = new char[ENTITY_NAMES.length];
+        for (int i = 0; i < ENTITY_NAMES.length; i++) {
+            ENTITY_CHARS[i] = entities.get(ENTITY_NAMES[i]);
+        }
+    }
+
     private int position;
     private final String html;
 
@@ -77,7 +128,17 @@ public class SimpleHtmlParser {
      * @return text
      */
     public String getTextInNextElement(String tag) {
-        return getTextInNextElement(html, tag, position);
+        return getTextInNextElement(html, tag, position, true);
+    }
+
+    /**
+     * Same as getTextInNextElement but the entities are left in the text, use
+     * this for text that is shown as html. Only &amp;nbsp; is removed.
+     * @param tag
+     * @return html text
+     */
+    public String getHtmlInNextElement(String tag) {
+        return getTextInNextElement(html, tag, position, false);
     }
 
     /**
@@ -86,9 +147,10 @@ public class SimpleHtmlParser {
      * @param text
      * @param tag
      * @param pos
+     * @param decode the entities in the text
      * @return text in the child node
      */
-    private String getTextInNextElement(String text, String tag, int pos) {
+    private String getTextInNextElement(String text, String tag, int pos, boolean decode) {
         Pair<Integer, String> result = htmlInTag(text, tag, pos);
         if (result == null) {
             throw new JbmnplsParsingException("Cannot find " + tag + " in html.");
@@ -98,16 +160,74 @@ public class SimpleHtmlParser {
 
         if (text.charAt(0) == '<') {
             tag = findCurrentTag(text, 0);
-            text = getTextInNextElement(text, tag, 0);
+            text = getTextInNextElement(text, tag, 0, decode);
             position = holdPosition;
             return text;
         }
 
-        text = text.replaceAll("&nbsp;", "").trim();
+        text = decode ? decodeText(text, 0, text.length()) : text.replace("&nbsp;", "").trim();
         position = holdPosition;
         return text;
     }
 
+    /**
+     * Decodes the entities in the html between start and end and trims it
+     * like String.trim(). Named (&amp;amp;) and numeric (&amp;#39; or &amp;#x27;)
+     * entities are decoded, &amp;nbsp; is removed like JobMine's empty cells
+     * need and anything that is not an entity is left as it is.
+     * Nothing is allocated for text that has no entities and no spaces
+     * around it when it is the whole String.
+     * @param html
+     * @param start
+     * @param end
+     * @return the text
+     */
+    public static String decodeText(String html, int start, int end) {
+        while (start < end && html.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && html.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int amp = indexOf('&', html, start, end);
+        if (amp == -1) {
+            if (start == end) {
+                return "";
+            }
+            return start == 0 && end == html.length() ? html : html.substring(start, end);
+        }
+
+        StringBuilder sb = new StringBuilder(end - start);
+        int i = start;
+        while (amp != -1) {
+            sb.append(html, i, amp);
+            int semicolon = indexOf(';', html, amp + 2, Math.min(end, amp + MAX_ENTITY_LENGTH));
+            int c = semicolon == -1 ? -1 : decodeEntity(html, amp + 1, semicolon);
+            if (c == -1) {
+                sb.append('&');
+                i = amp + 1;
+            } else {
+                if (c != NBSP) {
+                    sb.appendCodePoint(c);
+                }
+                i = semicolon + 1;
+            }
+            amp = indexOf('&', html, i, end);
+        }
+        sb.append(html, i, end);
+
+        // Removing &nbsp; can leave spaces at the ends
+        start = 0;
+        end = sb.length();
+        while (start < end && sb.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && sb.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return start == end ? "" : sb.substring(start, end);
+    }
+
 
     /**
      * This finds the attribute's value inside the current element
@@ -286,4 +406,74 @@ public class SimpleHtmlParser {
         return new Pair<Integer, String>(positions[smallestIndex], strings[smallestIndex]);
     }
 
+    /**
+     * Finds the character the entity between start and end stands for, the
+     * name without the & and ;
+     * @return the character or -1 if it is not an entity
+     */
+    private static int decodeEntity(String html, int start, int end) {
+        if (html.charAt(start) == '#') {
+            int radix = 10;
+            start++;
+            if (start < end && (html.charAt(start) == 'x' || html.charAt(start) == 'X')) {
+                radix = 16;
+                start++;
+            }
+            if (start == end) {
+                return -1;
+            }
+            int c = 0;
+            for (int i = start; i < end; i++) {
+                int digit = Character.digit(html.charAt(i), radix);
+                if (digit == -1) {
+                    return -1;
+                }
+                c = c * radix + digit;
+            }
+            if (c == 0 || c > Character.MAX_CODE_POINT
+                    || c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                return -1;
+            }
+            return c;
+        }
+
+        // Binary search the names without making a String
+        int low = 0, high = ENTITY_NAMES.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int cmp = compare(ENTITY_NAMES[middle], html, start, end);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return ENTITY_CHARS[middle];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares like String.compareTo with the html between start and end
+     */
+    private static int compare(String name, String html, int start, int end) {
+        int length = Math.min(name.length(), end - start);
+        for (int i = 0; i < length; i++) {
+            int diff = name.charAt(i) - html.charAt(start + i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return name.length() - (end - start);
+    }
+
+    private static int indexOf(char c, String html, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (html.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
 }
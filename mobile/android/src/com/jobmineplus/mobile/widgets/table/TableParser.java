@@ -1,11 +1,9 @@
 package com.jobmineplus.mobile.widgets.table;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
-import java.util.Locale;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 
 import com.jobmineplus.mobile.exceptions.HiddenColumnsException;
 import com.jobmineplus.mobile.exceptions.InfiniteLoopException;
@@ -15,6 +13,8 @@ import com.jobmineplus.mobile.widgets.Job.INTERVIEW_TYPE;
 import com.jobmineplus.mobile.widgets.Job.STATE;
 import com.jobmineplus.mobile.widgets.Job.STATUS;
 import com.jobmineplus.mobile.widgets.Job.HEADER;
+import com.jobmineplus.mobile.widgets.JobmineDate;
+import com.jobmineplus.mobile.widgets.http.MarkerScanner;
 
 /**
  * For this class, you need to have one for each table you are parsing
@@ -28,10 +28,8 @@ import com.jobmineplus.mobile.widgets.Job.HEADER;
  *
  */
 public class TableParser {
-    private final int INFINITE_LOOP_LIMIT = 1000;
-    private OnTableParseListener listener;
-    private static final SimpleDateFormat DATE_FORMAT_SPACE = new SimpleDateFormat("d MMM yyyy", Locale.getDefault());
-    private static final SimpleDateFormat DATE_FORMAT_DASH = new SimpleDateFormat("d-MMM-yyyy", Locale.getDefault());
+    static final int INFINITE_LOOP_LIMIT = 1000;
+    private OnTableRowListener listener;
 
     //===============
     //  Constructor
@@ -46,10 +44,18 @@ public class TableParser {
      * You must attach a listener if you want to execute each outline
      * @param listener
      */
-    public void setOnTableRowParse(OnTableParseListener listener) {
+    public void setOnTableRowListener(OnTableRowListener listener) {
         this.listener = listener;
     }
 
+    /**
+     * Same as setOnTableRowListener but each row is given as boxed objects
+     * @param listener
+     */
+    public void setOnTableRowParse(OnTableParseListener listener) {
+        this.listener = listener == null ? null : new ObjectRowAdapter(listener);
+    }
+
     /**
      * The activities call this inside parseWebpage to help them get the
      * column data from the table.
@@ -67,79 +73,119 @@ public class TableParser {
     }
 
     public void execute(TableParserOutline[] outlines, String html) {
-        boolean verifySingleOutline = outlines.length == 1;
         SimpleHtmlParser parser = new SimpleHtmlParser(html);
-        String text, tableID = outlines[0].getTableId();
+        parser.skipText(outlines[0].getTableId());
+        executeTable(outlines, parser, html);
+    }
+
+    /**
+     * Parses several tables of the same page while only looking through the
+     * html once to find them. Outlines with the same table id are the backups
+     * of each other like in execute(outlines, html). The rows of every table
+     * are given to the listener in the order the tables are in the html, not
+     * the order of the outlines passed in.
+     * Throws if any of the tables is not in the html before parsing anything.
+     * @param html
+     * @param outlines
+     */
+    public void executeAll(String html, TableParserOutline... outlines) {
+        // Group the outlines by their table
+        LinkedHashMap<String, ArrayList<TableParserOutline>> tables =
+                new LinkedHashMap<String, ArrayList<TableParserOutline>>();
+        for (TableParserOutline outline : outlines) {
+            ArrayList<TableParserOutline> list = tables.get(outline.getTableId());
+            if (list == null) {
+                list = new ArrayList<TableParserOutline>();
+                tables.put(outline.getTableId(), list);
+            }
+            list.add(outline);
+        }
+        final String[] ids = tables.keySet().toArray(new String[tables.size()]);
+
+        // Find all the tables at once
+        final int[] indices = new MarkerScanner(ids).indexOfAll(html, 0);
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            if (indices[i] == -1) {
+                throw new JbmnplsParsingException("Cannot find " + ids[i] + " in html.");
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                return indices[lhs] - indices[rhs];
+            }
+        });
+
+        SimpleHtmlParser parser = new SimpleHtmlParser(html);
+        for (int i : order) {
+            ArrayList<TableParserOutline> list = tables.get(ids[i]);
+            parser.setPosition(indices[i] + ids[i].length());
+            executeTable(list.toArray(new TableParserOutline[list.size()]), parser, html);
+        }
+    }
+
+    /**
+     * Instead of passing the whole html to execute, this returns a listener that
+     * can be given to JbmnplsHttpClient.getJobmineHtml(url, listener) so that each
+     * row is parsed as soon as it is downloaded. Call finish() on it after the
+     * request is done so it can report a table that was never completed.
+     * @param outlines
+     * @return the stream parser
+     */
+    public TableStreamParser stream(TableParserOutline... outlines) {
+        if (listener == null) {
+            throw new JbmnplsParsingException("You did not attach a listener to the table parsing function.");
+        }
+        return new TableStreamParser(this, listener, outlines);
+    }
 
-        int i, index, start, end, columnNum = 0;
-        index = parser.skipText(tableID);
+    /**
+     * Reads the headers of the table from the tokenizer and returns the
+     * outline that matches them. The end is the position where the header
+     * row finishes.
+     * @param outlines
+     * @param tokenizer
+     * @param end
+     * @return the outline to parse the table with
+     */
+    TableParserOutline findOutline(TableParserOutline[] outlines, TableTokenizer tokenizer, int end) {
+        return HeaderMatcher.get(outlines).select(tokenizer, end);
+    }
+
+    /**
+     * Parses the table whose id the parser has just passed.
+     * @param outlines
+     * @param parser
+     * @param html
+     */
+    private void executeTable(TableParserOutline[] outlines, SimpleHtmlParser parser, String html) {
+        int index, start, end;
+        index = parser.getPosition();
 
         // Set the position to the table headers
         start = parser.skipText("<th");
         end = parser.skipText("<tr");
-        parser.setPosition(index);
 
         // Now check to see if the outline(s) is/are valid for this table
-        TableParserOutline passOutline = null;
-        if (verifySingleOutline) {
-            // See if each header matches
-            HEADER[] headers = outlines[0].getHeaders();
-            for (i = 0; i < headers.length; i++) {
-                text = parser.getTextInNextElement("th").toLowerCase(Locale.getDefault()).replace("  ", " ");
-                if (parser.getPosition() < end) {
-                    if (!text.equals(headers[i].toString())) {
-                        throw new HiddenColumnsException("Outline does not match html");
-                    }
-                } else {
-                    throw new HiddenColumnsException("Outline has more columns than html");
-                }
-            }
-            passOutline = outlines[0];
-        } else {
-            ArrayList<TableParserOutline> outlinesArr = new ArrayList<TableParserOutline>(
-                    Arrays.asList(outlines));
-
-            // Decide which outline fits the given html and use that one
-            while (outlinesArr.size() > 1) {
-                text = parser.getTextInNextElement("th").toLowerCase(Locale.getDefault()).replace("  ", " ");;
-                if (parser.getPosition() < end) { // Not enough headers in html
-                    for (i = outlinesArr.size() - 1; i >= 0; i--) {
-                        HEADER[] headers = outlinesArr.get(i).getHeaders();
-                        if (columnNum < headers.length) { // Not enough headers in outline
-                            String curHeader = headers[columnNum].toString();
-                            if (!curHeader.equals(text)) {
-                                outlinesArr.remove(i);
-                            }
-                        } else {
-                            outlinesArr.remove(i);
-                        }
-                    }
-                    columnNum++;
-                } else {
-                    break;
-                }
-            }
-            if (outlinesArr.size() != 1) {
-                throw new HiddenColumnsException("Cannot find a suitable outline to parse table.");
-            }
-            passOutline = outlinesArr.get(0);
-        }
+        TableTokenizer headers = new TableTokenizer(html, index, html.length(), "th");
+        TableParserOutline passOutline = findOutline(outlines, headers, end);
 
-        // Get the html for the table itself
+        // Parse only the html of the table itself
+        parser = new SimpleHtmlParser(html, headers.getPosition());
         end = parser.skipText("</table>");
-        html = html.substring(start, end);
-
-        internalExecute(passOutline, html);
+        internalExecute(passOutline, html, start, end);
     }
 
-    private void internalExecute(TableParserOutline outline, String html) {
+    private void internalExecute(TableParserOutline outline, String html, int start, int end) {
         if (listener == null) {
             throw new JbmnplsParsingException("You did not attach a listener to the table parsing function.");
         }
 
         // Parse the table now
         try {
-            parseTable(outline, html);
+            parseTable(outline, html, start, end);
         } catch (NumberFormatException e) {
             throw new JbmnplsParsingException(e.getMessage());
         }
@@ -152,127 +198,24 @@ public class TableParser {
      * a 3rd party HTML parser because this is 4 times faster. When complete it will
      * return mid-code.
      * @param html
+     * @param start
+     * @param end
      */
-    private void parseTable(TableParserOutline outline, String html) {
-        SimpleHtmlParser parser = new SimpleHtmlParser(html);
-        HEADER[] headers = outline.getHeaders();
+    private void parseTable(TableParserOutline outline, String html, int start, int end) {
+        TableTokenizer tokenizer = new TableTokenizer(html, start, end);
 
         int row = 0;
-        Object[] passedObj = new Object[outline.columnLength()];
-        while(!parser.isEndOfContent() && row < INFINITE_LOOP_LIMIT) {
+        TableRow tableRow = new TableRow();
+        while(!tokenizer.isEndOfContent() && row < INFINITE_LOOP_LIMIT) {
             // Check if there is another TD, if not we are done
-            int position = html.indexOf("<tr", parser.getPosition());
-            if (position == -1) { return; }
-            parser.setPosition(position);
-
-            // Parse the job id of the table, if no id, then table is empty
-            String text = parser.getTextInNextTD();
-            if (text == "") { return; }
-            try {
-                passedObj[0] = Integer.parseInt(text);
-            } catch (NumberFormatException e) {
-                e.printStackTrace();
-                throw new HiddenColumnsException("Cannot get id from table.");
-            }
+            int position = html.indexOf("<tr", tokenizer.getPosition());
+            if (position == -1 || position + 3 > end) { return; }
+            tokenizer.setPosition(position);
+
+            if (!parseRow(outline, tokenizer, row, tableRow)) { return; }
 
-            for (int i = 1; i < outline.columnLength(); i++) {
-                text = parser.getTextInNextTD();
-
-                // Convert the value to the column type and type
-                Object value = null;
-                switch(headers[i]) {
-                    // Strings
-                    case JOB_TITLE:
-                    case EMPLOYER:
-                    case EMPLOYER_NAME:
-                    case UNIT:
-                    case UNIT_NAME:
-                    case UNIT_NAME_1:
-                    case TERM:
-                    case ROOM:
-                    case INSTRUCTIONS:
-                    case INTERVIEWER:
-                    case LOCATION:
-                    case START_TIME:        // Handled by interviews
-                    case END_TIME:          // Handled by interviews
-                    case SHORTLIST:
-                        value = text;
-                        break;
-
-                    // Integers
-                    case OPENINGS:
-                    case NUM_APPS:
-                    case LENGTH:
-                        value = text == "" ? 0 : Integer.parseInt(text);
-                        break;
-
-                    case JOB_ID:
-                    case JOB_IDENTIFIER:
-                        if (text == "") {   // No data in table/row
-                            if (row != 0) {
-                                throw new JbmnplsParsingException("Cannot parse id because it is empty on row= " + row);
-                            }
-                            return;
-                        }
-                        value = text == "" ? 0 : Integer.parseInt(text);
-                        break;
-
-                    // Dates
-                    case LAST_DAY_TO_APPLY:
-                    case LAST_DATE_TO_APPLY:
-                    case DATE:
-                        if (text.equals("")) {
-                            value = new Date(0);
-                        } else {
-                            try {
-                                if (text.contains("-")) {
-                                    value = DATE_FORMAT_DASH.parse(text);
-                                } else {
-                                    value = DATE_FORMAT_SPACE.parse(text);
-                                }
-                            } catch (ParseException e) {
-                                e.printStackTrace();
-                                value = new Date(0);
-                            }
-                        }
-                        break;
-
-                    // Interview Type
-                    case INTER_TYPE:
-                        value = INTERVIEW_TYPE.getTypefromString(text);
-                        break;
-
-                    // Application Status
-                    case APPLY:
-                        value = APPLY_STATUS.getApplicationStatusfromString(text);
-                        break;
-
-                    // Job Status
-                    case APP_STATUS:
-                        value = STATUS.getStatusfromString(text);
-                        break;
-
-                    // Job State
-                    case JOB_STATUS:
-                        value = STATE.getStatefromString(text);
-                        break;
-
-                    // Ignore
-                    case VIEW_DETAILS:
-                    case VIEW_PACKAGE:
-                    case SELECT_TIME:
-                    case BLANK:
-                        break;
-
-                    default:
-                      throw new JbmnplsParsingException(
-                              "Cannot parse column with invalid type. Row= " + row +
-                              ", type= " + headers[i] + ", did you add them here?");
-                }
-                passedObj[i] = value;
-            }
             // Now we pass the values back to the activities to make jobs
-            listener.onRowParse(outline, passedObj);
+            listener.onRowParse(tableRow);
             row++;
         }
         // Chances are, these parts will never run
@@ -282,9 +225,156 @@ public class TableParser {
         throw new JbmnplsParsingException("Went to end of table but found no information.");
     }
 
+    /**
+     * Parses the columns of the row at the tokenizer's position into tableRow.
+     * Returns false when the row has no job id which means the table has no
+     * more data. Nothing is boxed and no Strings are made here.
+     * @param outline
+     * @param tokenizer
+     * @param row
+     * @param tableRow
+     * @return true if the row was parsed
+     */
+    boolean parseRow(TableParserOutline outline, TableTokenizer tokenizer, int row, TableRow tableRow) {
+        HEADER[] headers = outline.getHeaders();
+        tableRow.reset(outline);
+
+        // Parse the job id of the table, if no id, then table is empty
+        tokenizer.nextCell();
+        if (tokenizer.isEmpty()) { return false; }
+        try {
+            tableRow.setInt(0, tokenizer.getInt());
+        } catch (NumberFormatException e) {
+            e.printStackTrace();
+            throw new HiddenColumnsException("Cannot get id from table.");
+        }
+
+        for (int i = 1; i < outline.columnLength(); i++) {
+            tokenizer.nextCell();
+
+            // Convert the value to the column type and type
+            switch(headers[i]) {
+                // Strings
+                case JOB_TITLE:
+                case EMPLOYER:
+                case EMPLOYER_NAME:
+                case UNIT:
+                case UNIT_NAME:
+                case UNIT_NAME_1:
+                case TERM:
+                case ROOM:
+                case INSTRUCTIONS:
+                case INTERVIEWER:
+                case LOCATION:
+                case START_TIME:        // Handled by interviews
+                case END_TIME:          // Handled by interviews
+                case SHORTLIST:
+                    tableRow.setText(i, tokenizer);
+                    break;
+
+                // Integers
+                case OPENINGS:
+                case NUM_APPS:
+                case LENGTH:
+                    tableRow.setInt(i, tokenizer.isEmpty() ? 0 : tokenizer.getInt());
+                    break;
+
+                case JOB_ID:
+                case JOB_IDENTIFIER:
+                    if (tokenizer.isEmpty()) {   // No data in table/row
+                        if (row != 0) {
+                            throw new JbmnplsParsingException("Cannot parse id because it is empty on row= " + row);
+                        }
+                        return false;
+                    }
+                    tableRow.setInt(i, tokenizer.getInt());
+                    break;
+
+                // Dates
+                case LAST_DAY_TO_APPLY:
+                case LAST_DATE_TO_APPLY:
+                case DATE:
+                    if (tokenizer.isEmpty()) {
+                        tableRow.setDate(i, 0);
+                    } else {
+                        long time = JobmineDate.parse(tokenizer);
+                        tableRow.setDate(i, time == JobmineDate.INVALID ? 0 : time);
+                    }
+                    break;
+
+                // Interview Type
+                case INTER_TYPE:
+                    tableRow.setEnum(i, INTERVIEW_TYPE.getTypefromString(tokenizer));
+                    break;
+
+                // Application Status
+                case APPLY:
+                    tableRow.setEnum(i, APPLY_STATUS.getApplicationStatusfromString(tokenizer));
+                    break;
+
+                // Job Status
+                case APP_STATUS:
+                    tableRow.setEnum(i, STATUS.getStatusfromString(tokenizer));
+                    break;
+
+                // Job State
+                case JOB_STATUS:
+                    tableRow.setEnum(i, STATE.getStatefromString(tokenizer));
+                    break;
+
+                // Ignore
+                case VIEW_DETAILS:
+                case VIEW_PACKAGE:
+                case SELECT_TIME:
+                case BLANK:
+                    break;
+
+                default:
+                  throw new JbmnplsParsingException(
+                          "Cannot parse column with invalid type. Row= " + row +
+                          ", type= " + headers[i] + ", did you add them here?");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives each row to an OnTableParseListener as boxed objects, numbers as
+     * Integer and dates as Date, like the parser used to.
+     */
+    private static final class ObjectRowAdapter implements OnTableRowListener {
+        private final OnTableParseListener listener;
+        private Object[] data;
+
+        ObjectRowAdapter(OnTableParseListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onRowParse(TableRow row) {
+            TableParserOutline outline = row.getOutline();
+            if (data == null || data.length != outline.columnLength()) {
+                data = new Object[outline.columnLength()];
+            }
+            row.toObjects(data);
+            listener.onRowParse(outline, data);
+        }
+    }
+
     //=============
     //  Interface
     //=============
+    public interface OnTableRowListener {
+        /**
+         * This is called once each row is parsed. The row is reused for the
+         * next one so read the columns here with its typed getters.
+         * Column 0 will always be the job id, everything else follows the
+         * table columns of row.getOutline()
+         * @param row
+         */
+        public void onRowParse(TableRow row);
+    }
+
     public interface OnTableParseListener {
         /**
          * This is needed once you parse each row
@@ -0,0 +1,173 @@
+package com.jobmineplus.mobile.widgets.table;
+
+import java.util.Arrays;
+
+/**
+ * One row of a table given to OnTableRowListener. The same row is filled
+ * again for every row of the table, so read what you need in onRowParse
+ * and do not keep it. Numbers and dates are kept as primitives so nothing
+ * is boxed, and the text of a column is only made into a String when it is
+ * asked for. Columns are numbered like the headers of the outline, the
+ * first column is always the job id.
+ */
+public final class TableRow {
+    static final byte NONE = 0;
+    static final byte INT = 1;
+    static final byte DATE = 2;
+    static final byte ENUM = 3;
+    static final byte TEXT = 4;
+
+    private TableParserOutline outline;
+    private byte[] types = new byte[0];
+    private long[] numbers = new long[0];
+    private Object[] values = new Object[0];
+
+    // Where the text of each column is until it is made into a String
+    private String[] sources = new String[0];
+    private int[] starts = new int[0];
+    private int[] ends = new int[0];
+
+    TableRow() {
+    }
+
+    //==================
+    //  Public Methods
+    //==================
+    public TableParserOutline getOutline() {
+        return outline;
+    }
+
+    public int getColumnCount() {
+        return outline.columnLength();
+    }
+
+    /**
+     * @param column
+     * @return the number in the column, 0 if it was empty
+     */
+    public int getInt(int column) {
+        return (int) numbers[column];
+    }
+
+    /**
+     * @param column
+     * @return the date in the column as epoch milliseconds, 0 if it was
+     * empty or not a date
+     */
+    public long getLong(int column) {
+        return numbers[column];
+    }
+
+    /**
+     * @param column
+     * @return the enum value of the column, such as Job.STATUS
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Enum<E>> E getEnum(int column) {
+        return (E) values[column];
+    }
+
+    /**
+     * @param column
+     * @return the text of the column, "" if it was empty
+     */
+    public CharSequence getCharSequence(int column) {
+        return getString(column);
+    }
+
+    public String getString(int column) {
+        String text = (String) values[column];
+        if (text == null && sources[column] != null) {
+            text = starts[column] == ends[column] ? ""
+                    : sources[column].substring(starts[column], ends[column]);
+            values[column] = text;
+        }
+        return text;
+    }
+
+    /**
+     * Compares the text of a column without making a String
+     * @param column
+     * @param text
+     * @return true if the text of the column is the same
+     */
+    public boolean textEquals(int column, String text) {
+        String value = (String) values[column];
+        if (value != null || sources[column] == null) {
+            return text.equals(value);
+        }
+        int length = ends[column] - starts[column];
+        return length == text.length()
+                && sources[column].regionMatches(starts[column], text, 0, length);
+    }
+
+    /**
+     * Boxes each column like OnTableParseListener used to receive them,
+     * numbers as Integer and dates as Date.
+     * @param data to fill, at least as long as the number of columns
+     */
+    public void toObjects(Object[] data) {
+        for (int i = 0; i < outline.columnLength(); i++) {
+            switch (types[i]) {
+                case INT:
+                    data[i] = getInt(i);
+                    break;
+                case DATE:
+                    data[i] = new java.util.Date(numbers[i]);
+                    break;
+                case ENUM:
+                    data[i] = values[i];
+                    break;
+                case TEXT:
+                    data[i] = getString(i);
+                    break;
+                default:
+                    data[i] = null;
+                    break;
+            }
+        }
+    }
+
+    //==========================
+    //  Filled by TableParser
+    //==========================
+    void reset(TableParserOutline outline) {
+        this.outline = outline;
+        int length = outline.columnLength();
+        if (types.length < length) {
+            types = new byte[length];
+            numbers = new long[length];
+            values = new Object[length];
+            sources = new String[length];
+            starts = new int[length];
+            ends = new int[length];
+        } else {
+            Arrays.fill(types, NONE);
+            Arrays.fill(values, null);
+            Arrays.fill(sources, null);
+        }
+    }
+
+    void setInt(int column, int value) {
+        types[column] = INT;
+        numbers[column] = value;
+    }
+
+    void setDate(int column, long millis) {
+        types[column] = DATE;
+        numbers[column] = millis;
+    }
+
+    void setEnum(int column, Enum<?> value) {
+        types[column] = ENUM;
+        values[column] = value;
+    }
+
+    void setText(int column, TableTokenizer tokenizer) {
+        types[column] = TEXT;
+        values[column] = null;
+        sources[column] = tokenizer.getSource();
+        starts[column] = tokenizer.getTextStart();
+        ends[column] = tokenizer.getTextEnd();
+    }
+}
@@ -0,0 +1,224 @@
+package com.jobmineplus.mobile.widgets.table;
+
+import com.jobmineplus.mobile.exceptions.InfiniteLoopException;
+import com.jobmineplus.mobile.exceptions.JbmnplsParsingException;
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient.OnHtmlReadListener;
+import com.jobmineplus.mobile.widgets.table.TableParser.OnTableRowListener;
+
+/**
+ * Parses a table while the html is still being downloaded. Pass this to
+ * JbmnplsHttpClient.getJobmineHtml(url, listener) and each row is given to
+ * the listener as soon as the next row (or the end of the table)
+ * arrives. Only the html that has not been parsed yet is kept in memory, so
+ * the whole page is never held as one String.
+ * Create this from TableParser.stream(outlines) and call finish() after the
+ * request completes.
+ */
+public class TableStreamParser implements OnHtmlReadListener {
+    private static final String TABLE_HEADER = "<th";
+    private static final String TABLE_ROW = "<tr";
+    private static final String TABLE_END = "</table>";
+
+    private static enum STATE { FIND_TABLE, FIND_HEADERS, ROWS, DONE }
+
+    private final TableParser tableParser;
+    private final OnTableRowListener listener;
+    private final TableParserOutline[] outlines;
+    private final String tableId;
+    private final StringBuilder html = new StringBuilder();
+
+    private STATE state = STATE.FIND_TABLE;
+    private TableParserOutline outline;
+    private final TableRow tableRow = new TableRow();
+    private int row = 0;
+    private int rowFrom = 0;
+    private int tableEnd = -1;
+    private int tableEndFrom = 0;
+
+    //===============
+    //  Constructor
+    //===============
+    TableStreamParser(TableParser parser, OnTableRowListener listener, TableParserOutline[] outlines) {
+        this.tableParser = parser;
+        this.listener = listener;
+        this.outlines = outlines;
+        this.tableId = outlines[0].getTableId();
+    }
+
+    //==================
+    //  Public Methods
+    //==================
+    @Override
+    public void onHtmlRead(char[] buffer, int offset, int length) {
+        if (state == STATE.DONE) {
+            return;
+        }
+        html.append(buffer, offset, length);
+        try {
+            switch (state) {
+                case FIND_TABLE:
+                    if (!findTable()) {
+                        return;
+                    }
+                    // Fall through
+                case FIND_HEADERS:
+                    if (!findHeaders()) {
+                        return;
+                    }
+                    // Fall through
+                case ROWS:
+                    parseRows();
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            throw new JbmnplsParsingException(e.getMessage());
+        }
+    }
+
+    /**
+     * Call this after all the html is read. Throws the same exceptions that
+     * TableParser.execute would if the table was not found or was cut off.
+     */
+    public void finish() {
+        switch (state) {
+            case FIND_TABLE:
+                throw new JbmnplsParsingException("Cannot find " + tableId + " in html.");
+            case FIND_HEADERS:
+                throw new JbmnplsParsingException("Cannot find " + (html.indexOf(TABLE_HEADER) == -1
+                        ? TABLE_HEADER : TABLE_ROW) + " in html.");
+            case ROWS:
+                throw new JbmnplsParsingException("Cannot find " + TABLE_END + " in html.");
+            default:
+                break;
+        }
+    }
+
+    public boolean isDone() {
+        return state == STATE.DONE;
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    /**
+     * Looks for the table id and throws away everything before it. Keeps the
+     * end of the html in case the id is split between two chunks.
+     * @return true if found
+     */
+    private boolean findTable() {
+        int index = html.indexOf(tableId);
+        if (index == -1) {
+            html.delete(0, Math.max(0, html.length() - tableId.length() + 1));
+            return false;
+        }
+        html.delete(0, index + tableId.length());
+        state = STATE.FIND_HEADERS;
+        return true;
+    }
+
+    /**
+     * Waits for the entire header row (up to the first data row) and then
+     * picks the outline that matches it.
+     * @return true if the headers were parsed
+     */
+    private boolean findHeaders() {
+        int start = html.indexOf(TABLE_HEADER);
+        if (start == -1) {
+            return false;
+        }
+        start += TABLE_HEADER.length();
+        int end = html.indexOf(TABLE_ROW, start);
+        if (end == -1) {
+            return false;
+        }
+        end += TABLE_ROW.length();
+
+        TableTokenizer headers = new TableTokenizer(html.toString(), 0, html.length(), "th");
+        outline = tableParser.findOutline(outlines, headers, end);
+
+        // Like execute, rows are searched from the first header onwards
+        html.delete(0, start);
+        tableEndFrom = Math.max(0, headers.getPosition() - start);
+        rowFrom = 0;
+        state = STATE.ROWS;
+        return true;
+    }
+
+    /**
+     * Parses every row that has been completely downloaded. A row is complete
+     * when the next row starts or the table ends.
+     */
+    private void parseRows() {
+        while (state == STATE.ROWS) {
+            if (tableEnd == -1) {
+                tableEnd = html.indexOf(TABLE_END, tableEndFrom);
+                if (tableEnd == -1) {
+                    tableEndFrom = Math.max(tableEndFrom, html.length() - TABLE_END.length() + 1);
+                }
+            }
+            int limit = tableEnd == -1 ? html.length() : tableEnd;
+
+            // Find the start of this row
+            int position = html.indexOf(TABLE_ROW, rowFrom);
+            if (position == -1 || position + TABLE_ROW.length() > limit) {
+                if (tableEnd != -1) {
+                    finishTable();
+                } else {
+                    rowFrom = Math.max(rowFrom, html.length() - TABLE_ROW.length() + 1);
+                    discardParsed();
+                }
+                return;
+            }
+
+            // Wait till the row is fully downloaded
+            int next = html.indexOf(TABLE_ROW, position + TABLE_ROW.length());
+            if (next == -1 || next + TABLE_ROW.length() > limit) {
+                if (tableEnd == -1) {
+                    rowFrom = position;
+                    discardParsed();
+                    return;
+                }
+                next = tableEnd;
+            }
+
+            TableTokenizer tokenizer = new TableTokenizer(html.substring(position, next));
+            if (!tableParser.parseRow(outline, tokenizer, row, tableRow)) {
+                finishTable();
+                return;
+            }
+            listener.onRowParse(tableRow);
+            row++;
+            if (row >= TableParser.INFINITE_LOOP_LIMIT) {
+                throw new InfiniteLoopException("We ran an infinite loop looking for column data.");
+            }
+            rowFrom = position + tokenizer.getPosition();
+            discardParsed();
+        }
+    }
+
+    /**
+     * Removes the html that was already parsed so that only the unparsed
+     * part of the table stays in memory.
+     */
+    private void discardParsed() {
+        // Keep what might be the start of the table's end tag
+        int count = tableEnd == -1 ? Math.min(rowFrom, tableEndFrom) : rowFrom;
+        if (count <= 0) {
+            return;
+        }
+        html.delete(0, count);
+        if (tableEnd != -1) {
+            tableEnd -= count;
+        }
+        tableEndFrom = Math.max(0, tableEndFrom - count);
+        rowFrom -= count;
+    }
+
+    private void finishTable() {
+        state = STATE.DONE;
+        html.setLength(0);
+        html.trimToSize();
+    }
+}
@@ -0,0 +1,277 @@
+package com.jobmineplus.mobile.widgets.table;
+
+import com.jobmineplus.mobile.exceptions.JbmnplsParsingException;
+
+/**
+ * Walks the rows of a table and finds the text of each cell as a range in
+ * the html instead of copying it out. Like SimpleHtmlParser.getTextInNextTD,
+ * the text of a cell is the text of its deepest first child, with its
+ * entities decoded and trimmed, but no substrings are made on the way down. A String
+ * is only created when getText() is called, numbers are read straight
+ * from the html. The tokenizer is also the CharSequence of the
+ * current cell's text so it can be matched without a String.
+ */
+final class TableTokenizer implements CharSequence {
+    private final String html;
+    private final int end;
+    private final String tag;
+    private final String cellOpen;
+    private final String cellClose;
+    private int position;
+
+    // The current cell
+    private int textStart = 0;
+    private int textEnd = 0;
+    private String text = null;
+    private boolean isInHtml = true;      // False if the text had to be copied
+
+    //===============
+    //  Constructor
+    //===============
+    public TableTokenizer(String html) {
+        this(html, 0, html.length());
+    }
+
+    /**
+     * Only reads the html between start and end, as if it was a substring
+     * @param html
+     * @param start
+     * @param end
+     */
+    public TableTokenizer(String html, int start, int end) {
+        this(html, start, end, "td");
+    }
+
+    /**
+     * Same as above but reads the cells of another tag, such as th
+     * @param html
+     * @param start
+     * @param end
+     * @param tag
+     */
+    public TableTokenizer(String html, int start, int end, String tag) {
+        this.html = html;
+        this.end = end;
+        this.position = start;
+        this.tag = tag;
+        cellOpen = "<" + tag;
+        cellClose = "</" + tag + ">";
+    }
+
+    //============
+    //  Position
+    //============
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int newPosition) {
+        position = end <= newPosition ? -1 : newPosition;
+    }
+
+    public boolean isEndOfContent() {
+        return position == -1;
+    }
+
+    //=========
+    //  Cells
+    //=========
+    /**
+     * Moves to the next cell and finds the range of its text. Throws the same
+     * exceptions as SimpleHtmlParser.getTextInNextElement when the html is broken.
+     */
+    public void nextCell() {
+        int start = indexOf(cellOpen, position);
+        if (start != -1) {
+            start = indexOf('>', start, end);
+        }
+        int close = start == -1 ? -1 : indexOf(cellClose, start);
+        if (close == -1) {
+            throw new JbmnplsParsingException("Cannot find " + tag + " in html.");
+        }
+        findText(start + 1, close);
+        position = close + cellClose.length();
+    }
+
+    public boolean isEmpty() {
+        return textStart == textEnd;
+    }
+
+    /**
+     * @return the text of the cell, "" if empty
+     */
+    public String getText() {
+        if (text == null) {
+            text = textStart == textEnd ? "" : html.substring(textStart, textEnd);
+        }
+        return text;
+    }
+
+    /**
+     * @return the length of the cell's text
+     */
+    @Override
+    public int length() {
+        return textEnd - textStart;
+    }
+
+    /**
+     * Reads the cell's text without making a String
+     * @param index
+     * @return the character
+     */
+    @Override
+    public char charAt(int index) {
+        return isInHtml ? html.charAt(textStart + index) : text.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return getText().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+
+    /**
+     * @return the String that holds the cell's text, either the html or the
+     * copy made when the text had entities
+     */
+    String getSource() {
+        return isInHtml ? html : getText();
+    }
+
+    /**
+     * @return where the cell's text starts in getSource()
+     */
+    int getTextStart() {
+        return textStart;
+    }
+
+    /**
+     * @return where the cell's text ends in getSource()
+     */
+    int getTextEnd() {
+        return textEnd;
+    }
+
+    /**
+     * Reads the cell as a number, same as Integer.parseInt(getText())
+     * @return the number
+     */
+    public int getInt() {
+        if (isInHtml && textEnd - textStart <= 9) {
+            int value = 0;
+            for (int i = textStart; i < textEnd; i++) {
+                int digit = html.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return Integer.parseInt(getText());
+                }
+                value = value * 10 + digit;
+            }
+            if (textEnd > textStart) {
+                return value;
+            }
+        }
+        return Integer.parseInt(getText());
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    /**
+     * Goes down the first child of each element till it reaches text, then
+     * trims it. Cells with entities are left to the String path.
+     * @param start
+     * @param end
+     */
+    private void findText(int start, int end) {
+        while (start < end && html.charAt(start) == '<') {
+            // Get the name of the child's tag
+            int lessThan = start;
+            if (end - start <= 1) {
+                throw new JbmnplsParsingException("Cannot find last tag in html.");
+            }
+            if (html.charAt(lessThan + 1) == '/') {
+                lessThan++;
+            }
+            int space = indexOf(' ', lessThan, end);
+            int greaterThan = indexOf('>', lessThan, end);
+            if (space == -1 || greaterThan == -1) {
+                throw new JbmnplsParsingException("Cannot find last tag in html.");
+            }
+            int nameStart = lessThan + 1;
+            int nameLength = Math.min(space, greaterThan) - nameStart;
+
+            // Find the contents of that child
+            int open = indexOfTag(nameStart, nameLength, start, end, false);
+            int contentStart = open == -1 ? -1 : indexOf('>', open, end);
+            int contentEnd = contentStart == -1 ? -1
+                    : indexOfTag(nameStart, nameLength, contentStart, end, true);
+            if (contentEnd == -1) {
+                throw new JbmnplsParsingException("Cannot find "
+                        + html.substring(nameStart, nameStart + nameLength) + " in html.");
+            }
+            start = contentStart + 1;
+            end = contentEnd;
+        }
+
+        text = null;
+        isInHtml = indexOf('&', start, end) == -1;
+        if (!isInHtml) {
+            text = SimpleHtmlParser.decodeText(html, start, end);
+            textStart = 0;
+            textEnd = text.length();
+            return;
+        }
+        while (start < end && html.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && html.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        textStart = start;
+        textEnd = end;
+    }
+
+    /**
+     * Finds "<name" or "</name>" between from and end
+     */
+    private int indexOfTag(int nameStart, int nameLength, int from, int end, boolean closing) {
+        int tagLength = nameLength + (closing ? 3 : 1);
+        int i = from;
+        while ((i = html.indexOf('<', i)) != -1 && i + tagLength <= end) {
+            if (closing) {
+                if (html.charAt(i + 1) == '/'
+                        && html.regionMatches(i + 2, html, nameStart, nameLength)
+                        && html.charAt(i + 2 + nameLength) == '>') {
+                    return i;
+                }
+            } else if (html.regionMatches(i + 1, html, nameStart, nameLength)) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private int indexOf(String str, int from) {
+        int i = html.indexOf(str, from);
+        return i != -1 && i + str.length() <= end ? i : -1;
+    }
+
+    /**
+     * Only looks between from and end, a character missing from the cell
+     * should not make it search the rest of the page
+     */
+    private int indexOf(char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (html.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,112 @@
+package com.jobmineplus.mobile.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+
+/**
+ * Loads the saved JobMine pages from test-sever/pages/files and makes
+ * bigger pages out of them. The folder can be changed with
+ * -Djbmnpls.pages=path, by default it is found from mobile/benchmark.
+ */
+public final class Fixtures {
+    public static final String PAGES_PROPERTY = "jbmnpls.pages";
+    private static final String DEFAULT_PAGES = "../../test-sever/pages/files";
+
+    // TableParser gives up on a table after 1000 rows
+    public static final int MAX_ROWS_PER_PAGE = 500;
+
+    private Fixtures() {
+    }
+
+    //==================
+    //  Public Methods
+    //==================
+    public static File getFolder() {
+        File folder = new File(System.getProperty(PAGES_PROPERTY, DEFAULT_PAGES));
+        if (!folder.isDirectory()) {
+            throw new IllegalStateException("Cannot find the pages at " + folder.getAbsolutePath()
+                    + ", run from mobile/benchmark or set -D" + PAGES_PROPERTY + "=path");
+        }
+        return folder;
+    }
+
+    /**
+     * @param name of the file such as "shortlist-test.html"
+     * @return the html of the page
+     */
+    public static String load(String name) {
+        File file = new File(getFolder(), name);
+        StringBuilder sb = new StringBuilder((int) file.length());
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+            char[] buffer = new char[1024 * 8];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                sb.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + file.getAbsolutePath(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Makes pages that have the table repeat its first row until there are
+     * the number of rows asked for. Since TableParser only allows so many
+     * rows in one table, the rows are split into pages of at most
+     * MAX_ROWS_PER_PAGE rows each.
+     * @param html of a page whose table has at least one row
+     * @param tableId
+     * @param rows in total
+     * @return the pages
+     */
+    public static String[] scaleUp(String html, String tableId, int rows) {
+        // The rows start after the headers like TableParser expects
+        int index = indexOf(html, tableId, 0);
+        int headers = indexOf(html, "<th", index);
+        int rowStart = indexOf(html, "<tr", headers);
+        int tableEnd = indexOf(html, "</table>", rowStart);
+        int rowEnd = html.indexOf("<tr", rowStart + 3);
+        if (rowEnd == -1 || rowEnd > tableEnd) {
+            rowEnd = tableEnd;
+        }
+        String row = html.substring(rowStart, rowEnd);
+
+        ArrayList<String> pages = new ArrayList<String>();
+        for (int left = rows; left > 0; left -= MAX_ROWS_PER_PAGE) {
+            int count = Math.min(left, MAX_ROWS_PER_PAGE);
+            StringBuilder sb = new StringBuilder(html.length() + row.length() * count);
+            sb.append(html, 0, rowStart);
+            for (int i = 0; i < count; i++) {
+                sb.append(row);
+            }
+            sb.append(html, tableEnd, html.length());
+            pages.add(sb.toString());
+        }
+        return pages.toArray(new String[pages.size()]);
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    private static int indexOf(String html, String text, int from) {
+        int index = html.indexOf(text, from);
+        if (index == -1) {
+            throw new IllegalStateException("Cannot find " + text + " in page.");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,109 @@
+package com.jobmineplus.mobile.benchmark;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.jobmineplus.mobile.widgets.JobmineDate;
+
+/**
+ * Not a benchmark, checks that JobmineDate gives the same results as
+ * SimpleDateFormat. Dates are made up in both of JobMine's forms and read
+ * and written by JobmineDate and a new SimpleDateFormat, first on one
+ * thread, then on many threads at once and then again after the default
+ * time zone changes. Prints the number of wrong results of each and exits
+ * with 1 if there were any.
+ */
+public class JobmineDateCheck {
+    private static final int DATES = 200000;
+    private static final int THREADS = 8;
+    private static final long SEED = 4444;
+
+    public static void main(String[] args) throws Exception {
+        TimeZone original = TimeZone.getDefault();
+        int wrong = 0;
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("America/Toronto"));
+            wrong += report("One thread", check(DATES, SEED));
+            wrong += report(THREADS + " threads", checkThreads());
+
+            // The cached dates were made in Toronto time
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+            wrong += report("After the time zone changed", check(DATES, SEED));
+        } finally {
+            TimeZone.setDefault(original);
+        }
+        System.exit(wrong == 0 ? 0 : 1);
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    private static int checkThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int i = 0; i < THREADS; i++) {
+                final long seed = SEED + i;
+                futures[i] = executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return check(DATES / THREADS, seed);
+                    }
+                });
+            }
+            int wrong = 0;
+            for (Future<?> future : futures) {
+                wrong += (Integer) future.get();
+            }
+            return wrong;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int check(int count, long seed) throws ParseException {
+        Random random = new Random(seed);
+        String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun",
+                "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+        int wrong = 0;
+        for (int i = 0; i < count; i++) {
+            // Days up to 31 in any month, so some roll over like 31 Feb
+            int day = 1 + random.nextInt(31);
+            String month = months[random.nextInt(months.length)];
+            int year = 1990 + random.nextInt(50);
+            boolean dashes = random.nextBoolean();
+            String text = dashes ? day + "-" + month + "-" + year : day + " " + month + " " + year;
+
+            long expected = new SimpleDateFormat(dashes ? "d-MMM-yyyy" : "d MMM yyyy",
+                    Locale.ENGLISH).parse(text).getTime();
+            long millis = JobmineDate.parse(text);
+            if (millis != expected) {
+                wrong++;
+                System.out.println("Read \"" + text + "\" as " + millis + " not " + expected);
+                continue;
+            }
+
+            String expectedText = new SimpleDateFormat("MMM d, yyyy").format(new Date(expected));
+            String formatted = JobmineDate.format(millis);
+            if (!formatted.equals(expectedText)) {
+                wrong++;
+                System.out.println("Wrote " + millis + " as \"" + formatted + "\" not \""
+                        + expectedText + "\"");
+            }
+        }
+        return wrong;
+    }
+
+    private static int report(String name, int wrong) {
+        System.out.println(name + ": " + wrong + " wrong");
+        return wrong;
+    }
+}
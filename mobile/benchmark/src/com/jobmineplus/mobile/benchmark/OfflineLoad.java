@@ -0,0 +1,134 @@
+package com.jobmineplus.mobile.benchmark;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient;
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient.GET_LINKS;
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient.LOGGED;
+import com.jobmineplus.mobile.widgets.http.FixtureTransport;
+import com.jobmineplus.mobile.widgets.table.TableParser;
+import com.jobmineplus.mobile.widgets.table.TableParser.OnTableRowListener;
+import com.jobmineplus.mobile.widgets.table.TableParserOutline;
+import com.jobmineplus.mobile.widgets.table.TableRow;
+
+/**
+ * Not a JMH benchmark, a load test of JbmnplsHttpClient without a network.
+ * The client talks to a FixtureTransport that serves the saved pages with
+ * some latency. Each user logs in with their own client, then gets and
+ * parses every page a number of times, all users at once. Prints how long it
+ * took, the pages and rows per second and the numbers of each endpoint, and
+ * exits with 1 if a request or parse failed.
+ *
+ * The jobs are not saved, the database needs SQLite which is only on
+ * Android.
+ */
+public class OfflineLoad {
+    private static final int USERS = 8;
+    private static final int ROUNDS = 50;
+    private static final long LATENCY = 50;
+
+    // Saved pages whose tables all parse, interviews are only read
+    private static final String[][] PAGES = {
+        {GET_LINKS.APPLICATIONS, "applications-test.html"},
+        {GET_LINKS.SHORTLIST, "shortlist-test-no-resume.html"},
+        {GET_LINKS.SEARCH, "search-fully-empty.html"},
+        {GET_LINKS.INTERVIEWS, null},
+    };
+
+    /**
+     * @param args [users] [rounds] [latency in ms] [bandwidth in bytes a second]
+     */
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : USERS;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : ROUNDS;
+        long latency = args.length > 2 ? Long.parseLong(args[2]) : LATENCY;
+        int bandwidth = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        final FixtureTransport transport = FixtureTransport.fromTestServer(Fixtures.getFolder());
+        for (String[] page : PAGES) {
+            if (page[1] != null) {
+                transport.serve(page[0], page[1]);
+            }
+        }
+        transport.setLatency(latency);
+        transport.setBandwidth(bandwidth);
+
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        long start = System.nanoTime();
+        int pages = 0, rows = 0, failures = 0;
+        try {
+            Future<?>[] futures = new Future<?>[users];
+            for (int i = 0; i < users; i++) {
+                final String user = "user" + i;
+                futures[i] = executor.submit(new Callable<int[]>() {
+                    @Override
+                    public int[] call() throws Exception {
+                        return runUser(new JbmnplsHttpClient(user, "password", transport), rounds);
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                int[] result = (int[]) future.get();
+                pages += result[0];
+                rows += result[1];
+                failures += result[2];
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(users + " users, " + rounds + " rounds, " + latency + " ms latency");
+        System.out.println(String.format("%.2f s, %.1f pages/s, %.1f rows/s", seconds,
+                pages / seconds, rows / seconds));
+        System.out.println(pages + " pages, " + rows + " rows, " + failures + " failed");
+        System.out.println(JbmnplsHttpClient.getMetrics().dump());
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    /**
+     * @return the pages read, the rows parsed and the failures
+     */
+    private static int[] runUser(JbmnplsHttpClient client, int rounds) {
+        final int[] result = new int[3];
+        if (client.login() != LOGGED.IN) {
+            System.out.println(client.getUsername() + " could not log in");
+            result[2]++;
+            return result;
+        }
+        TableParser parser = new TableParser();
+        parser.setOnTableRowListener(new OnTableRowListener() {
+            @Override
+            public void onRowParse(TableRow row) {
+                row.getInt(0);
+                result[1]++;
+            }
+        });
+
+        for (int i = 0; i < rounds; i++) {
+            for (String[] page : PAGES) {
+                try {
+                    String html = client.getJobmineHtml(page[0]);
+                    result[0]++;
+                    if (page[1] != null) {
+                        long start = System.currentTimeMillis();
+                        TableParserOutline[] outlines = Outlines.forPage(page[1]);
+                        parser.execute(outlines, html);
+                        client.recordParseTime(page[0], System.currentTimeMillis() - start);
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    result[2]++;
+                }
+            }
+        }
+        client.logout();
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package com.jobmineplus.mobile.benchmark;
+
+import com.jobmineplus.mobile.widgets.Job.HEADER;
+import com.jobmineplus.mobile.widgets.table.TableParserOutline;
+
+/**
+ * The outlines each activity parses its page with. The activities cannot be
+ * loaded without Android so these are copied from them, change them here
+ * when the activities change.
+ */
+public final class Outlines {
+    //================
+    //  Applications
+    //================
+    public static final String ACTIVE_TABLE_ID = "UW_CO_STU_APPSV$scroll$0";
+    public static final String ALL_TABLE_ID = "UW_CO_APPS_VW2$scrolli$0";
+
+    public static final TableParserOutline[] APPLICATIONS = {
+        new TableParserOutline(ACTIVE_TABLE_ID,
+                HEADER.JOB_ID, HEADER.JOB_TITLE, HEADER.EMPLOYER, HEADER.UNIT, HEADER.TERM,
+                HEADER.JOB_STATUS, HEADER.APP_STATUS, HEADER.VIEW_DETAILS, HEADER.LAST_DAY_TO_APPLY, HEADER.NUM_APPS),
+        new TableParserOutline(ACTIVE_TABLE_ID,
+                HEADER.JOB_ID, HEADER.JOB_TITLE, HEADER.EMPLOYER, HEADER.UNIT, HEADER.TERM,
+                HEADER.JOB_STATUS, HEADER.VIEW_DETAILS, HEADER.LAST_DAY_TO_APPLY, HEADER.NUM_APPS),
+        new TableParserOutline(ACTIVE_TABLE_ID,
+                HEADER.JOB_ID, HEADER.JOB_TITLE, HEADER.EMPLOYER, HEADER.UNIT, HEADER.TERM,
+                HEADER.JOB_STATUS, HEADER.APP_STATUS, HEADER.VIEW_DETAILS, HEADER.NUM_APPS, HEADER.LAST_DAY_TO_APPLY),
+        new TableParserOutline(ALL_TABLE_ID,
+                HEADER.JOB_ID, HEADER.JOB_TITLE, HEADER.EMPLOYER, HEADER.UNIT, HEADER.TERM,
+                HEADER.JOB_STATUS, HEADER.APP_STATUS, HEADER.VIEW_DETAILS, HEADER.LAST_DAY_TO_APPLY, HEADER.NUM_APPS)
+    };
+
+    //==============
+    //  Interviews
+    //==============
+    public static final TableParserOutline[] INTERVIEWS = {
+        new TableParserOutline("UW_CO_STUD_INTV$scroll$0",
+                HEADER.BLANK, HEADER.JOB_ID, HEADER.EMPLOYER_NAME, HEADER.JOB_TITLE, HEADER.DATE,
+                HEADER.INTER_TYPE, HEADER.SELECT_TIME, HEADER.START_TIME, HEADER.LENGTH, HEADER.ROOM,
+                HEADER.INSTRUCTIONS, HEADER.INTERVIEWER, HEADER.JOB_STATUS),
+        new TableParserOutline("UW_CO_GRP_STU_V$scroll$0",
+                HEADER.BLANK, HEADER.JOB_ID, HEADER.EMPLOYER_NAME, HEADER.JOB_TITLE, HEADER.DATE,
+                HEADER.START_TIME, HEADER.END_TIME, HEADER.ROOM, HEADER.INSTRUCTIONS),
+        new TableParserOutline("UW_CO_NSCHD_JOB$scroll$0",
+                HEADER.BLANK, HEADER.JOB_IDENTIFIER, HEADER.EMPLOYER_NAME, HEADER.JOB_TITLE,
+                HEADER.INSTRUCTIONS),
+        new TableParserOutline("UW_CO_SINT_CANC$scroll$0",
+                HEADER.BLANK, HEADER.JOB_ID, HEADER.EMPLOYER, HEADER.JOB_TITLE)
+    };
+
+    //=============
+    //  Shortlist
+    //=============
+    public static final TableParserOutline SHORTLIST =
+            new TableParserOutline("UW_CO_STUJOBLST$scrolli$0",
+                    HEADER.JOB_IDENTIFIER, HEADER.JOB_TITLE, HEADER.EMPLOYER_NAME, HEADER.UNIT_NAME_1,
+                    HEADER.LOCATION, HEADER.APPLY, HEADER.LAST_DATE_TO_APPLY, HEADER.NUM_APPS);
+
+    //==============
+    //  Job Search
+    //==============
+    public static final TableParserOutline JOBSEARCH =
+            new TableParserOutline("UW_CO_JOBRES_VW$scroll$0",
+                    HEADER.JOB_IDENTIFIER, HEADER.JOB_TITLE, HEADER.EMPLOYER_NAME, HEADER.UNIT_NAME,
+                    HEADER.LOCATION, HEADER.OPENINGS, HEADER.APPLY, HEADER.SHORTLIST,
+                    HEADER.NUM_APPS, HEADER.LAST_DAY_TO_APPLY);
+
+    private Outlines() {
+    }
+
+    /**
+     * @param page the name of a saved page such as "shortlist-test.html"
+     * @return the outlines its activity parses it with
+     */
+    public static TableParserOutline[] forPage(String page) {
+        if (page.startsWith("applications")) {
+            return APPLICATIONS;
+        } else if (page.startsWith("interviews")) {
+            return INTERVIEWS;
+        } else if (page.startsWith("shortlist")) {
+            return new TableParserOutline[] {SHORTLIST};
+        } else if (page.startsWith("search")) {
+            return new TableParserOutline[] {JOBSEARCH};
+        }
+        throw new IllegalArgumentException("No outlines for " + page);
+    }
+}
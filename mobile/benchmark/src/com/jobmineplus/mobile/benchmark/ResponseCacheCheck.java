@@ -0,0 +1,92 @@
+package com.jobmineplus.mobile.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient;
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient.GET_LINKS;
+import com.jobmineplus.mobile.widgets.JbmnplsHttpClient.LOGGED;
+import com.jobmineplus.mobile.widgets.http.FixtureTransport;
+
+/**
+ * Not a benchmark, checks that getJobmineHtmlIfModified finds the pages that
+ * did not change. The shortlist page is served through a FixtureTransport,
+ * then again with other ICStateNum, ICSID and ICElementNum values like
+ * JobMine does on every request, which must be NOT_MODIFIED, and then with a
+ * job id changed, which must be read. Prints each result and exits with 1
+ * if any is wrong.
+ */
+public class ResponseCacheCheck {
+    private static final String PAGE = "shortlist-test.html";
+    private static final String URL = GET_LINKS.SHORTLIST;
+
+    public static void main(String[] args) throws Exception {
+        String html = Fixtures.load(PAGE);
+        String nextState = html.replace("id=\"ICStateNum\" value=\"14\"", "id=\"ICStateNum\" value=\"15\"")
+                .replace("id='ICStateNum' value='14'", "id='ICStateNum' value='15'")
+                .replace("id=\"ICElementNum\" value=\"0\"", "id=\"ICElementNum\" value=\"1\"")
+                .replace("6WJ0ktR6LmzgUK6FaptMPBuwBY+yqrW2p1YhPB3sCzY=", "Q2hhbmdlZCBzZXNzaW9uIGlk");
+        String changed = nextState.replace(">45355454<", ">45355455<");
+        if (nextState.equals(html) || changed.equals(nextState)) {
+            throw new IllegalStateException(PAGE + " does not have the fields to change.");
+        }
+
+        File folder = createFolder();
+        int wrong = 0;
+        try {
+            write(folder, "first.html", html);
+            write(folder, "next-state.html", nextState);
+            write(folder, "changed.html", changed);
+
+            FixtureTransport transport = new FixtureTransport(folder);
+            JbmnplsHttpClient client = new JbmnplsHttpClient("user", "password", transport);
+            if (client.login() != LOGGED.IN) {
+                throw new IllegalStateException("Cannot log in to the fixture transport.");
+            }
+
+            wrong += check(client, transport, "first.html", false);
+            wrong += check(client, transport, "first.html", true);
+            wrong += check(client, transport, "next-state.html", true);
+            wrong += check(client, transport, "changed.html", false);
+        } finally {
+            for (File file : folder.listFiles()) {
+                file.delete();
+            }
+            folder.delete();
+        }
+        System.exit(wrong == 0 ? 0 : 1);
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    private static int check(JbmnplsHttpClient client, FixtureTransport transport,
+            String file, boolean sameAsLast) throws IOException {
+        transport.serve(URL, file);
+        String html = client.getJobmineHtmlIfModified(URL);
+        boolean notModified = html == JbmnplsHttpClient.NOT_MODIFIED;
+        boolean right = html != null && notModified == sameAsLast;
+        System.out.println(file + ": " + (html == null ? "failed" : notModified ? "not modified" : "read")
+                + (right ? "" : ", wrong"));
+        return right ? 0 : 1;
+    }
+
+    private static File createFolder() throws IOException {
+        File folder = File.createTempFile("jbmnpls", "");
+        if (!folder.delete() || !folder.mkdir()) {
+            throw new IOException("Cannot make the folder " + folder);
+        }
+        return folder;
+    }
+
+    private static void write(File folder, String name, String html) throws IOException {
+        OutputStream out = new FileOutputStream(new File(folder, name));
+        try {
+            out.write(html.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.jobmineplus.mobile.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.jobmineplus.mobile.widgets.table.SimpleHtmlParser;
+import com.jobmineplus.mobile.widgets.table.TableParserOutline;
+
+/**
+ * The SimpleHtmlParser calls the parsers are built on, over the saved pages:
+ * finding each table, reading every cell of the first table and decoding
+ * every piece of text between tags.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleHtmlParserBenchmark {
+    @Param({"applications-test-columns2.html", "interviews-3-jobs.html",
+            "shortlist-test-infinite-loop.html", "search-fully-empty.html"})
+    public String page;
+
+    private String html;
+    private String[] tableIds;
+
+    // Where each cell of the first table starts
+    private int[] cells;
+
+    // The text between each tag
+    private int[] textStarts;
+    private int[] textEnds;
+
+    @Setup
+    public void setup() {
+        html = Fixtures.load(page);
+        LinkedHashSet<String> ids = new LinkedHashSet<String>();
+        for (TableParserOutline outline : Outlines.forPage(page)) {
+            ids.add(outline.getTableId());
+        }
+        tableIds = ids.toArray(new String[ids.size()]);
+        findCells();
+        findText();
+    }
+
+    //==============
+    //  Benchmarks
+    //==============
+    @Benchmark
+    public int skipText() {
+        int sum = 0;
+        for (String id : tableIds) {
+            sum += new SimpleHtmlParser(html).skipText(id);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void getTextInNextTD(Blackhole bh) {
+        SimpleHtmlParser parser = new SimpleHtmlParser(html);
+        for (int i = 0; i < cells.length; i++) {
+            parser.setPosition(cells[i]);
+            bh.consume(parser.getTextInNextTD());
+        }
+    }
+
+    @Benchmark
+    public void decodeText(Blackhole bh) {
+        for (int i = 0; i < textStarts.length; i++) {
+            bh.consume(SimpleHtmlParser.decodeText(html, textStarts[i], textEnds[i]));
+        }
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    /**
+     * Keeps the cells that getTextInNextTD can read, cells with only an
+     * image in them throw
+     */
+    private void findCells() {
+        SimpleHtmlParser parser = new SimpleHtmlParser(html);
+        int position = parser.skipText(tableIds[0], "<th", "<tr");
+        int end = html.indexOf("</table>", position);
+        ArrayList<Integer> starts = new ArrayList<Integer>();
+        while ((position = html.indexOf("<td", position)) != -1 && position < end) {
+            parser.setPosition(position);
+            try {
+                parser.getTextInNextTD();
+                starts.add(position);
+            } catch (RuntimeException e) {
+                // Skip this cell
+            }
+            position += 3;
+        }
+        cells = toArray(starts);
+    }
+
+    private void findText() {
+        ArrayList<Integer> starts = new ArrayList<Integer>();
+        ArrayList<Integer> ends = new ArrayList<Integer>();
+        int start = html.indexOf('>');
+        while (start != -1) {
+            int end = html.indexOf('<', start);
+            if (end == -1) {
+                break;
+            }
+            for (int i = start + 1; i < end; i++) {
+                if (html.charAt(i) > ' ') {
+                    starts.add(start + 1);
+                    ends.add(end);
+                    break;
+                }
+            }
+            start = html.indexOf('>', end);
+        }
+        textStarts = toArray(starts);
+        textEnds = toArray(ends);
+    }
+
+    private static int[] toArray(ArrayList<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
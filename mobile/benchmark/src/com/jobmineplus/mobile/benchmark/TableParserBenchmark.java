@@ -0,0 +1,153 @@
+package com.jobmineplus.mobile.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jobmineplus.mobile.widgets.table.TableParser;
+import com.jobmineplus.mobile.widgets.table.TableParser.OnTableRowListener;
+import com.jobmineplus.mobile.widgets.table.TableParserOutline;
+import com.jobmineplus.mobile.widgets.table.TableRow;
+
+/**
+ * Parses the saved pages with the outlines of their activity, and tables of
+ * 100, 1000 and 10000 copies of a real row. The rows benchmarks count each
+ * row as an operation, so their score and gc.alloc.rate.norm are per row.
+ * The listener only reads the job id, the text of the columns is left in the
+ * TableRow so only the parser itself is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableParserBenchmark {
+    private final TableParser parser = new TableParser();
+    private int rows;
+    private int idSum;
+
+    @Setup
+    public void setup() {
+        parser.setOnTableRowListener(new OnTableRowListener() {
+            @Override
+            public void onRowParse(TableRow row) {
+                rows++;
+                idSum += row.getInt(0);
+            }
+        });
+    }
+
+    //=========
+    //  Pages
+    //=========
+    @State(Scope.Thread)
+    public static class Page {
+        // Saved pages whose tables all parse, the others are missing columns
+        // and the interview pages have no text in their first column
+        @Param({"applications-test.html", "applications-test-columns2.html",
+                "shortlist-test-no-resume.html", "shortlist-test-infinite-loop.html",
+                "search-fully-empty.html"})
+        public String page;
+
+        String html;
+        TableParserOutline[] outlines;
+
+        @Setup
+        public void setup() {
+            html = Fixtures.load(page);
+            outlines = Outlines.forPage(page);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ScaledPage {
+        @Param({"applications", "shortlist"})
+        public String table;
+
+        String[] pages100;
+        String[] pages1000;
+        String[] pages10000;
+        TableParserOutline[] outlines;
+
+        @Setup
+        public void setup() {
+            String html;
+            if (table.equals("applications")) {
+                html = Fixtures.load("applications-test-columns2.html");
+                outlines = new TableParserOutline[] {Outlines.APPLICATIONS[3]};
+            } else {
+                html = Fixtures.load("shortlist-test-no-resume.html");
+                outlines = new TableParserOutline[] {Outlines.SHORTLIST};
+            }
+            String tableId = outlines[0].getTableId();
+            pages100 = Fixtures.scaleUp(html, tableId, 100);
+            pages1000 = Fixtures.scaleUp(html, tableId, 1000);
+            pages10000 = Fixtures.scaleUp(html, tableId, 10000);
+        }
+    }
+
+    //==============
+    //  Benchmarks
+    //==============
+    @Benchmark
+    public int page(Page state) {
+        parse(state.html, state.outlines);
+        return idSum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public int rows100(ScaledPage state) {
+        return parseAll(state.pages100, state.outlines, 100);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public int rows1000(ScaledPage state) {
+        return parseAll(state.pages1000, state.outlines, 1000);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10000)
+    public int rows10000(ScaledPage state) {
+        return parseAll(state.pages10000, state.outlines, 10000);
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    /**
+     * Parses like the activities do, pages with several tables find them all
+     * at once.
+     */
+    private void parse(String html, TableParserOutline[] outlines) {
+        if (outlines.length == 1) {
+            parser.execute(outlines[0], html);
+        } else {
+            parser.executeAll(html, outlines);
+        }
+    }
+
+    private int parseAll(String[] pages, TableParserOutline[] outlines, int expected) {
+        rows = 0;
+        for (String html : pages) {
+            parser.execute(outlines, html);
+        }
+        if (rows != expected) {
+            throw new IllegalStateException("Parsed " + rows + " rows instead of " + expected);
+        }
+        return idSum;
+    }
+}
@@ -0,0 +1,108 @@
+package com.jobmineplus.mobile.widgets;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The parsing Job.grabDescriptionData does, without the request. There is
+ * no saved description page so one is made with the same spans JobMine
+ * has, and it is given to DescriptionExtractor in pieces the size the http
+ * client reads, stopping once the extractor is done like the client does.
+ * This is in the same package as DescriptionExtractor to reach it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DescriptionBenchmark {
+    private static final int CHUNK_SIZE = 1024 * 8;     // Same as JbmnplsHttpClient
+    private static final int JOB_ID = 162684;
+
+    private char[] page;
+
+    @Setup
+    public void setup() {
+        page = buildPage().toCharArray();
+
+        // Make sure the page is read the way the app would
+        Job job = extract();
+        if (!job.getEmployerFullName().equals("Waterloo Software & Co.")
+                || job.getNumberOfOpenings() != 3) {
+            throw new IllegalStateException("The description page was not read correctly.");
+        }
+    }
+
+    //==============
+    //  Benchmarks
+    //==============
+    @Benchmark
+    public Job extract() {
+        Job job = new Job(JOB_ID, "Waterloo Software", "Software Developer");
+        DescriptionExtractor extractor = new DescriptionExtractor(job);
+        for (int i = 0; i < page.length && !extractor.isDone(); i += CHUNK_SIZE) {
+            extractor.onHtmlRead(page, i, Math.min(CHUNK_SIZE, page.length - i));
+        }
+        extractor.finish();
+        return job;
+    }
+
+    //===================
+    //  Private Methods
+    //===================
+    private static String buildPage() {
+        String[] spans = new String[32];
+        for (int i = 0; i < spans.length; i++) {
+            spans[i] = "Label " + i + ":";
+        }
+        spans[3] = "1 Jan 2014";
+        spans[4] = "15 Jan 2014";
+        spans[10] = "Waterloo Software &amp; Co.";
+        spans[12] = "Software Developer";
+        spans[14] = "Required";
+        spans[16] = "Toronto";
+        spans[18] = "3";
+        spans[20] = "ENG-Computer,ENG-Electrical,ENG-Software";
+        spans[21] = "MATH-Computer Science";
+        spans[23] = "Junior, Intermediate, Senior";
+        spans[26] = "Hiring support is available";
+        spans[27] = "Work term support is available";
+        spans[29] = "Please apply through &quot;JobMine&quot; before the deadline.";
+
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            description.append("Develop and test features for our web &amp; mobile products, ")
+                .append("working with a small team of developers and designers.<br />");
+        }
+        spans[31] = description.toString();
+
+        // JobMine has a lot of html before and after the details
+        StringBuilder sb = new StringBuilder();
+        sb.append("<html><head><title>Job Details</title></head><body>\n");
+        for (int i = 0; i < 300; i++) {
+            sb.append("<div id='win0div").append(i).append("'><span class='PSTEXT'>&nbsp;</span></div>\n");
+        }
+        sb.append("<table id='ACE_width' class='PSPAGECONTAINER'>\n");
+        for (int i = 0; i < spans.length; i++) {
+            sb.append("<tr><td><span class='PSEDITBOX_DISPONLY' id='UW_CO_JOBDTL_").append(i)
+                .append("'>").append(spans[i]).append("</span></td></tr>\n");
+        }
+        sb.append("</table>\n");
+        for (int i = 0; i < 1000; i++) {
+            sb.append("<div id='win0divfooter").append(i).append("'><span class='PSTEXT'>&nbsp;</span></div>\n");
+        }
+        sb.append("</body></html>");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,10 @@
+package android.text;
+
+/**
+ * Stands in for Android's TextUtils so the parsers run on a desktop JVM
+ */
+public class TextUtils {
+    public static boolean isEmpty(CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+}
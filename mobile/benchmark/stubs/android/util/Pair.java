@@ -0,0 +1,14 @@
+package android.util;
+
+/**
+ * Stands in for Android's Pair so the parsers run on a desktop JVM
+ */
+public class Pair<F, S> {
+    public final F first;
+    public final S second;
+
+    public Pair(F first, S second) {
+        this.first = first;
+        this.second = second;
+    }
+}